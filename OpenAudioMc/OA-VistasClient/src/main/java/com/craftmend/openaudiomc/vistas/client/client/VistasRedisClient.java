@@ -6,14 +6,15 @@ import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayl
 import com.craftmend.openaudiomc.generic.proxy.interfaces.UserHooks;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
 import com.craftmend.openaudiomc.api.user.User;
 import com.craftmend.openaudiomc.spigot.modules.events.SpigotAudioCommandEvent;
 import com.craftmend.openaudiomc.spigot.modules.proxy.service.ProxyNetworkingService;
 import com.craftmend.openaudiomc.vistas.client.redis.handlers.DefaultPacketHandler;
 import com.craftmend.openaudiomc.vistas.client.Vistas;
-import com.craftmend.openaudiomc.vistas.client.redis.SimpleRedisClient;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisEnvelope;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisClients;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
 import com.craftmend.openaudiomc.vistas.client.redis.packets.*;
 import org.bukkit.entity.Player;
 
@@ -22,21 +23,19 @@ import java.util.UUID;
 public class VistasRedisClient extends Service {
 
     private DefaultPacketHandler packetEvents;
-    private SimpleRedisClient redis;
+    private IRedisClient redis;
 
     @Inject
     public VistasRedisClient(Configuration configuration) {
         // setup handler
         packetEvents = new DefaultPacketHandler();
         packetEvents.setSelfId(Vistas.getInstance().getServerId());
-        redis = new SimpleRedisClient(
-                configuration.getString(StorageKey.REDIS_HOST),
-                configuration.getInt(StorageKey.REDIS_PORT),
-                configuration.getString(StorageKey.REDIS_PASSWORD),
-                configuration.getBoolean(StorageKey.REDIS_USE_SSL),
-                configuration.getString(StorageKey.REDIS_SENTINEL_MASTER_SET),
+        redis = RedisClients.create(
+                configuration,
                 packetEvents,
-                "vistas_to_server"
+                // broadcasts, and packets that are only meant for us
+                RedisEnvelope.BROADCAST_CHANNEL_TO_SERVER,
+                RedisEnvelope.serverChannel(Vistas.getInstance().getServerId())
         );
 
         EventApi.getInstance().registerHandler(SpigotAudioCommandEvent.class, event -> {
@@ -70,24 +69,20 @@ public class VistasRedisClient extends Service {
             if (wrappedProxyPacket.getPlayerId() != null) {
                 user = OpenAudioMc.resolveDependency(UserHooks.class).byUuid(wrappedProxyPacket.getPlayerId());
             }
-            try {
-                OpenAudioMc.getService(ProxyNetworkingService.class).getPacketManager().dispatchReceivedPacket(
-                        wrappedProxyPacket.getPacket().getClass(),
-                        user,
-                        wrappedProxyPacket.getPacket()
-                );
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-            }
+            OpenAudioMc.getService(ProxyNetworkingService.class).getPacketManager().dispatchReceivedPacket(
+                    wrappedProxyPacket.getPacket().getClass(),
+                    user,
+                    wrappedProxyPacket.getPacket()
+            );
         });
     }
 
     public void sendPacket(AbstractPacketPayload packet) {
-        redis.publish("server_to_vistas", OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, null)));
+        sendPacket(packet, null);
     }
 
     public void sendPacket(AbstractPacketPayload packet, UUID serverId) {
-        redis.publish("server_to_vistas", OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, serverId)));
+        redis.publish(RedisEnvelope.CHANNEL_TO_VISTAS, RedisEnvelope.wrap(serverId, OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, serverId))));
     }
 
 }
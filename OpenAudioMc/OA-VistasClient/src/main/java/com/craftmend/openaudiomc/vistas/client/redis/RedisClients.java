@@ -0,0 +1,38 @@
+package com.craftmend.openaudiomc.vistas.client.redis;
+
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisHandler;
+import lombok.Setter;
+
+/**
+ * Creates the pub/sub clients used by vistas and its servers. Defaults to a real redis connection,
+ * but can be swapped out to run vistas against an in-memory bus (like the load test harness does)
+ */
+public class RedisClients {
+
+    @Setter private static Factory factory = SimpleRedisClient::new;
+
+    public static IRedisClient create(Configuration configuration, IRedisHandler handler, String... channels) {
+        return factory.create(
+                configuration.getString(StorageKey.REDIS_HOST),
+                configuration.getInt(StorageKey.REDIS_PORT),
+                configuration.getString(StorageKey.REDIS_PASSWORD),
+                configuration.getBoolean(StorageKey.REDIS_USE_SSL),
+                configuration.getString(StorageKey.REDIS_SENTINEL_MASTER_SET),
+                handler,
+                channels
+        );
+    }
+
+    public static void reset() {
+        factory = SimpleRedisClient::new;
+    }
+
+    @FunctionalInterface
+    public interface Factory {
+        IRedisClient create(String host, int port, String password, boolean useSSL, String sentinelMasterSet, IRedisHandler handler, String... channels);
+    }
+
+}
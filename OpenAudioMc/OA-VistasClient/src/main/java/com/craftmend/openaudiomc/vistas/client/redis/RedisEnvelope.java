@@ -0,0 +1,59 @@
+package com.craftmend.openaudiomc.vistas.client.redis;
+
+import java.util.UUID;
+
+/**
+ * Vistas messages are prefixed with a fixed size header that holds the server they're meant for,
+ * so a node can drop messages for other servers with a single string compare, instead of parsing
+ * the entire packet first.
+ * <br>
+ * Format: '@' + 36 character target server id + ' ' + json
+ * Broadcasts use the nil uuid as their target. Messages that don't start with the marker are
+ * plain json from older versions, and still get parsed and filtered the old way.
+ */
+public class RedisEnvelope {
+
+    public static final String BROADCAST_CHANNEL_TO_SERVER = "vistas_to_server";
+    public static final String CHANNEL_TO_VISTAS = "server_to_vistas";
+
+    private static final char MARKER = '@';
+    private static final String BROADCAST = new UUID(0, 0).toString();
+    private static final int TARGET_LENGTH = BROADCAST.length();
+    private static final int HEADER_LENGTH = TARGET_LENGTH + 2;
+
+    /**
+     * @return the channel that only the given server listens to
+     */
+    public static String serverChannel(UUID serverId) {
+        return BROADCAST_CHANNEL_TO_SERVER + ":" + serverId;
+    }
+
+    public static String wrap(UUID target, String json) {
+        return new StringBuilder(HEADER_LENGTH + json.length())
+                .append(MARKER)
+                .append(target == null ? BROADCAST : target.toString())
+                .append(' ')
+                .append(json)
+                .toString();
+    }
+
+    public static boolean isEnvelope(String message) {
+        return message.length() >= HEADER_LENGTH && message.charAt(0) == MARKER && message.charAt(HEADER_LENGTH - 1) == ' ';
+    }
+
+    /**
+     * @param message an enveloped message
+     * @param selfId  the id of this server, or null if we take everything
+     * @return true if the message is a broadcast, or addressed to us
+     */
+    public static boolean isFor(String message, String selfId) {
+        if (selfId == null) return true;
+        return message.regionMatches(1, BROADCAST, 0, TARGET_LENGTH)
+                || message.regionMatches(1, selfId, 0, TARGET_LENGTH);
+    }
+
+    public static String body(String message) {
+        return message.substring(HEADER_LENGTH);
+    }
+
+}
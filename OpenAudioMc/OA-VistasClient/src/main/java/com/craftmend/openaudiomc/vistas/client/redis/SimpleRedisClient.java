@@ -1,9 +1,10 @@
 package com.craftmend.openaudiomc.vistas.client.redis;
 
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
 import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisHandler;
 import io.lettuce.core.pubsub.RedisPubSubAdapter;
 
-public class SimpleRedisClient extends RedisPubSubAdapter<String, String> {
+public class SimpleRedisClient extends RedisPubSubAdapter<String, String> implements IRedisClient {
 
     private IRedisHandler handler;
     private RedisConnection senderConnection;
@@ -34,6 +35,7 @@ public class SimpleRedisClient extends RedisPubSubAdapter<String, String> {
         });
     }
 
+    @Override
     public void publish(String channel, String message) {
         senderConnection.getPubSubHandler().publish(channel, message);
     }
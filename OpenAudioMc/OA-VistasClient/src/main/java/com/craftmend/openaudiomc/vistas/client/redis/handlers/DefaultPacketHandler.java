@@ -1,12 +1,11 @@
 package com.craftmend.openaudiomc.vistas.client.redis.handlers;
 
-import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
 import com.craftmend.openaudiomc.generic.utils.data.GsonFactory;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisEnvelope;
 import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisHandler;
 import com.craftmend.openaudiomc.vistas.client.redis.packets.InternalPacketWrapper;
 import com.google.gson.Gson;
-import lombok.Setter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,7 +16,13 @@ public class DefaultPacketHandler implements IRedisHandler {
     private Gson gson = GsonFactory.create();
 
     private Map<Class<?>, RedisPacketEvent<?>> eventMap = new HashMap<>();
-    @Setter private UUID selfId = null;
+    private UUID selfId = null;
+    private String selfIdString = null;
+
+    public void setSelfId(UUID selfId) {
+        this.selfId = selfId;
+        this.selfIdString = selfId == null ? null : selfId.toString();
+    }
 
     @Override
     public <T extends AbstractPacketPayload> RedisPacketEvent<T> registerPacket(Class<T> packetType) {
@@ -28,6 +33,12 @@ public class DefaultPacketHandler implements IRedisHandler {
 
     @Override
     public void onMessage(String channel, String message) {
+        if (RedisEnvelope.isEnvelope(message)) {
+            // not for us, don't even bother parsing it
+            if (!RedisEnvelope.isFor(message, selfIdString)) return;
+            message = RedisEnvelope.body(message);
+        }
+
         // parse packet
         InternalPacketWrapper ipw = gson.fromJson(message, InternalPacketWrapper.class);
         AbstractPacketPayload packet = ipw.getWrapped();
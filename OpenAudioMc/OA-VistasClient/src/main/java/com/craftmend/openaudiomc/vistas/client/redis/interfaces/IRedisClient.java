@@ -0,0 +1,7 @@
+package com.craftmend.openaudiomc.vistas.client.redis.interfaces;
+
+public interface IRedisClient {
+
+    void publish(String channel, String message);
+
+}
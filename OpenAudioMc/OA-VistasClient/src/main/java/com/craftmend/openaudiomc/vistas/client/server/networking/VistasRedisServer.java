@@ -14,11 +14,12 @@ import com.craftmend.openaudiomc.generic.proxy.ProxyHostService;
 import com.craftmend.openaudiomc.generic.proxy.interfaces.UserHooks;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
-import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
 import com.craftmend.openaudiomc.api.user.User;
 import com.craftmend.openaudiomc.vistas.client.redis.handlers.DefaultPacketHandler;
-import com.craftmend.openaudiomc.vistas.client.redis.SimpleRedisClient;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisEnvelope;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisClients;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
 import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisHandler;
 import com.craftmend.openaudiomc.vistas.client.redis.packets.*;
 import com.craftmend.openaudiomc.vistas.client.users.MinecraftServer;
@@ -30,20 +31,16 @@ import java.util.UUID;
 public class VistasRedisServer extends Service {
 
     @Getter private IRedisHandler packetEvents;
-    private SimpleRedisClient redis;
+    private IRedisClient redis;
 
     @Inject
     public VistasRedisServer(Configuration configuration) {
         // setup handler
         packetEvents = new DefaultPacketHandler();
-        redis = new SimpleRedisClient(
-                configuration.getString(StorageKey.REDIS_HOST),
-                configuration.getInt(StorageKey.REDIS_PORT),
-                configuration.getString(StorageKey.REDIS_PASSWORD),
-                configuration.getBoolean(StorageKey.REDIS_USE_SSL),
-                configuration.getString(StorageKey.REDIS_SENTINEL_MASTER_SET),
+        redis = RedisClients.create(
+                configuration,
                 packetEvents,
-                "server_to_vistas"
+                RedisEnvelope.CHANNEL_TO_VISTAS
         );
 
         packetEvents.registerPacket(UserJoinPacket.class).setHandler(joinPacket -> {
@@ -138,7 +135,9 @@ public class VistasRedisServer extends Service {
     }
 
     public void sendPacket(AbstractPacketPayload packet, UUID targetServerId) {
-        redis.publish("vistas_to_server", OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, targetServerId)));
+        // addressed packets go to the channel of that server, so other servers never see them
+        String channel = targetServerId == null ? RedisEnvelope.BROADCAST_CHANNEL_TO_SERVER : RedisEnvelope.serverChannel(targetServerId);
+        redis.publish(channel, RedisEnvelope.wrap(targetServerId, OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, targetServerId))));
     }
 
 }
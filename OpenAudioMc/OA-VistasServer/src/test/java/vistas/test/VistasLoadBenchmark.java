@@ -0,0 +1,149 @@
+package vistas.test;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.proxy.interfaces.UserHooks;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisClients;
+import com.craftmend.openaudiomc.vistas.client.users.ServerUserHooks;
+import com.craftmend.vistas.server.VistasServer;
+import com.craftmend.vistas.server.base.VistasConfiguration;
+import junit.framework.TestCase;
+import lombok.SneakyThrows;
+import org.junit.Test;
+import vistas.test.load.FakeNode;
+import vistas.test.load.GcSnapshot;
+import vistas.test.load.InMemoryRedisBus;
+import vistas.test.load.LatencyRecorder;
+import vistas.test.server.TestVistasServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Runs vistas against an in-memory redis bus with a bunch of simulated spigot servers and players,
+ * so scaling changes can be measured without any real servers (or a redis server) around.
+ * The workload is generated from a fixed seed, so runs are comparable.
+ * <br>
+ * This is too slow for every build, it only runs through the benchmark task. The cluster size, number of users,
+ * rounds and seed can be changed with bench.vistas.nodes, bench.vistas.users, bench.vistas.rounds and bench.vistas.seed
+ */
+public class VistasLoadBenchmark extends TestCase {
+
+    private static final int NODES = Integer.getInteger("bench.vistas.nodes", 8);
+    private static final int USERS = Integer.getInteger("bench.vistas.users", 500);
+    private static final int ROUNDS = Integer.getInteger("bench.vistas.rounds", 5);
+    private static final long SEED = Long.getLong("bench.vistas.seed", 20231L);
+
+    private InMemoryRedisBus bus;
+
+    @Override
+    @SneakyThrows
+    public void setUp() throws Exception {
+        bus = new InMemoryRedisBus();
+        RedisClients.setFactory(bus);
+
+        // re-use other unit test dir
+        if (!VistasConfiguration.BASE_PATH.endsWith("/../test-storage")) {
+            VistasConfiguration.BASE_PATH = VistasConfiguration.BASE_PATH + "/../test-storage";
+        }
+
+        new TestVistasServer();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        VistasServer.getInstance().getOpenAudioMc().disable();
+        RedisClients.reset();
+        bus.shutdown();
+    }
+
+    @Test
+    public void testJoinSwitchLeaveLoad() {
+        ServerUserHooks hooks = (ServerUserHooks) OpenAudioMc.resolveDependency(UserHooks.class);
+        Random random = new Random(SEED);
+
+        List<FakeNode> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            FakeNode node = new FakeNode(bus);
+            node.register();
+            nodes.add(node);
+        }
+        bus.awaitIdle(30);
+        assertEquals(NODES, hooks.getRemoteInstallation().size());
+
+        UUID[] players = new UUID[USERS];
+        String[] names = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            players[i] = new UUID(SEED, i);
+            names[i] = "LoadUser" + i;
+        }
+
+        // an untimed round first, the first one is always slower
+        runRound(nodes, players, names, random);
+        bus.getLatency().reset();
+
+        GcSnapshot gcBefore = new GcSnapshot(bus.getDispatcher());
+        long deliveredBefore = bus.getDelivered().get();
+        long start = System.nanoTime();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            runRound(nodes, players, names, random);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        GcSnapshot gcAfter = new GcSnapshot(bus.getDispatcher());
+        long delivered = bus.getDelivered().get() - deliveredBefore;
+
+        // everyone left again (the users themselves get cleaned up by the gc task, depending on timing)
+        for (FakeNode node : nodes) {
+            assertEquals(0, hooks.getRemoteInstallation().get(node.getServerId()).getOnlineUsers().size());
+        }
+
+        LatencyRecorder latency = bus.getLatency();
+        System.out.println("Vistas load: " + NODES + " nodes, " + USERS + " users, " + ROUNDS + " rounds, seed " + SEED);
+        System.out.println("  messages:   " + delivered + " in " + (elapsed / 1_000_000) + "ms (" + (long) (delivered / (elapsed / 1e9)) + " msg/s)");
+        System.out.println("  latency:    p50 " + micros(latency.percentile(50))
+                + " p90 " + micros(latency.percentile(90))
+                + " p99 " + micros(latency.percentile(99))
+                + " p99.9 " + micros(latency.percentile(99.9))
+                + " max " + micros(latency.percentile(100)));
+        System.out.println("  gc:         " + (gcAfter.getCollections() - gcBefore.getCollections()) + " collections, "
+                + (gcAfter.getCollectionMillis() - gcBefore.getCollectionMillis()) + "ms paused");
+        if (gcBefore.getAllocatedBytes() >= 0) {
+            long allocated = gcAfter.getAllocatedBytes() - gcBefore.getAllocatedBytes();
+            System.out.println("  allocated:  " + (allocated / 1024 / 1024) + "MB on the dispatcher (" + (delivered == 0 ? 0 : allocated / delivered) + " bytes/msg)");
+        }
+    }
+
+    /**
+     * Every player joins a random server, switches to another one (join before leave, like a proxy does)
+     * and then leaves the network entirely
+     */
+    private void runRound(List<FakeNode> nodes, UUID[] players, String[] names, Random random) {
+        FakeNode[] current = new FakeNode[players.length];
+        for (int i = 0; i < players.length; i++) {
+            current[i] = nodes.get(random.nextInt(nodes.size()));
+            current[i].join(players[i], names[i]);
+        }
+
+        for (int i = 0; i < players.length; i++) {
+            FakeNode next = nodes.get(random.nextInt(nodes.size()));
+            if (next == current[i]) continue;
+            next.join(players[i], names[i]);
+            current[i].leave(players[i], names[i]);
+            current[i] = next;
+        }
+
+        for (int i = 0; i < players.length; i++) {
+            current[i].leave(players[i], names[i]);
+        }
+
+        bus.awaitIdle(120);
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000) + "us";
+    }
+
+}
@@ -0,0 +1,54 @@
+package vistas.test.load;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.vistas.client.redis.RedisEnvelope;
+import com.craftmend.openaudiomc.vistas.client.redis.handlers.DefaultPacketHandler;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
+import com.craftmend.openaudiomc.vistas.client.redis.packets.*;
+import lombok.Getter;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A spigot server as vistas sees it, it talks over the same channels and envelopes as the
+ * real VistasRedisClient, but only counts what it receives.
+ */
+@Getter
+public class FakeNode {
+
+    private final UUID serverId = UUID.randomUUID();
+    private final AtomicLong receivedProxyPackets = new AtomicLong();
+    private final IRedisClient redis;
+
+    public FakeNode(InMemoryRedisBus bus) {
+        DefaultPacketHandler packetEvents = new DefaultPacketHandler();
+        packetEvents.setSelfId(serverId);
+        packetEvents.registerPacket(WrappedProxyPacket.class).setHandler(packet -> receivedProxyPackets.incrementAndGet());
+        packetEvents.registerPacket(AnnounceSelfRequest.class).setHandler(none -> register());
+
+        redis = bus.subscribe(packetEvents, RedisEnvelope.BROADCAST_CHANNEL_TO_SERVER, RedisEnvelope.serverChannel(serverId));
+    }
+
+    public void register() {
+        send(new ServerRegisterPacket(serverId));
+    }
+
+    public void join(UUID player, String name) {
+        send(new UserJoinPacket(name, player, serverId, "localhost"));
+    }
+
+    public void leave(UUID player, String name) {
+        send(new UserLeavePacket(name, player, serverId));
+    }
+
+    public void close() {
+        send(new ServerClosePacket(serverId));
+    }
+
+    private void send(AbstractPacketPayload packet) {
+        redis.publish(RedisEnvelope.CHANNEL_TO_VISTAS, RedisEnvelope.wrap(null, OpenAudioMc.getGson().toJson(new InternalPacketWrapper(packet, null))));
+    }
+
+}
@@ -0,0 +1,38 @@
+package vistas.test.load;
+
+import lombok.Getter;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Garbage collector counters at a point in time, diff two of them to see how much churn a run caused
+ */
+@Getter
+public class GcSnapshot {
+
+    private final long collections;
+    private final long collectionMillis;
+    private final long allocatedBytes;
+
+    public GcSnapshot(Thread thread) {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        this.collections = count;
+        this.collectionMillis = time;
+
+        // allocation counters are a hotspot extension, report -1 when they aren't there
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            this.allocatedBytes = ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread.getId());
+        } else {
+            this.allocatedBytes = -1;
+        }
+    }
+
+}
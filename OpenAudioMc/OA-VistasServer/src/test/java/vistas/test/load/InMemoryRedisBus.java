@@ -0,0 +1,112 @@
+package vistas.test.load;
+
+import com.craftmend.openaudiomc.vistas.client.redis.RedisClients;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisClient;
+import com.craftmend.openaudiomc.vistas.client.redis.interfaces.IRedisHandler;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stand-in for redis pub/sub that lives in the test jvm. Messages get delivered in publish order
+ * on a single dispatcher thread (just like lettuce delivers them on its event loop), and every delivery
+ * records the time between publishing and the subscriber being done with it.
+ */
+public class InMemoryRedisBus implements RedisClients.Factory {
+
+    private final Map<String, List<IRedisHandler>> subscribers = new ConcurrentHashMap<>();
+    private final BlockingQueue<QueuedMessage> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    @Getter private final AtomicLong published = new AtomicLong();
+    @Getter private final AtomicLong delivered = new AtomicLong();
+    @Getter private final LatencyRecorder latency = new LatencyRecorder();
+    @Getter private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public InMemoryRedisBus() {
+        dispatcher = new Thread(this::dispatch, "in-memory-redis");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @Override
+    public IRedisClient create(String host, int port, String password, boolean useSSL, String sentinelMasterSet, IRedisHandler handler, String... channels) {
+        return subscribe(handler, channels);
+    }
+
+    public IRedisClient subscribe(IRedisHandler handler, String... channels) {
+        for (String channel : channels) {
+            subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+        }
+        return this::publish;
+    }
+
+    public void publish(String channel, String message) {
+        published.incrementAndGet();
+        pending.incrementAndGet();
+        queue.add(new QueuedMessage(channel, message, System.nanoTime()));
+    }
+
+    /**
+     * Block until every message (including the ones published while handling others) has been delivered
+     */
+    @SneakyThrows
+    public void awaitIdle(int timeoutSeconds) {
+        long deadline = System.currentTimeMillis() + timeoutSeconds * 1000L;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Bus didn't drain within " + timeoutSeconds + " seconds, " + pending.get() + " messages left");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    private void dispatch() {
+        while (running) {
+            QueuedMessage message;
+            try {
+                message = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                List<IRedisHandler> handlers = subscribers.get(message.getChannel());
+                if (handlers == null) continue;
+                for (IRedisHandler handler : handlers) {
+                    try {
+                        handler.onMessage(message.getChannel(), message.getMessage());
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    delivered.incrementAndGet();
+                    latency.record(System.nanoTime() - message.getPublishedAt());
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class QueuedMessage {
+        private String channel;
+        private String message;
+        private long publishedAt;
+    }
+
+}
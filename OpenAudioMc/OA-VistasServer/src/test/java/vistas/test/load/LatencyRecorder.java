@@ -0,0 +1,39 @@
+package vistas.test.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects raw latency samples (in nanoseconds) so we can report exact percentiles afterwards.
+ * Only meant to be written to from a single thread.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size = 0;
+
+    public void record(long nanos) {
+        if (size == samples.length) samples = Arrays.copyOf(samples, size * 2);
+        samples[size++] = nanos;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the sample at that percentile in nanoseconds, or 0 if nothing got recorded
+     */
+    public long percentile(double percentile) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100d * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.craftmend.openaudiomc;
 
+import com.craftmend.openaudiomc.api.EventApi;
 import com.craftmend.openaudiomc.api.enums.ModuleEvent;
+import com.craftmend.openaudiomc.api.events.client.SystemReloadEvent;
 import com.craftmend.openaudiomc.api.impl.event.ApiEventDriver;
 import com.craftmend.openaudiomc.generic.api.ApiService;
 import com.craftmend.openaudiomc.generic.authentication.AuthenticationService;
@@ -29,10 +31,12 @@ import com.craftmend.openaudiomc.generic.proxy.ProxyHostService;
 import com.craftmend.openaudiomc.generic.proxy.interfaces.UserHooks;
 import com.craftmend.openaudiomc.generic.redis.RedisService;
 import com.craftmend.openaudiomc.generic.resources.RuntimeDependencyService;
+import com.craftmend.openaudiomc.generic.rest.HttpClientService;
 import com.craftmend.openaudiomc.generic.rest.ServerEnvironment;
 import com.craftmend.openaudiomc.generic.service.Service;
 import com.craftmend.openaudiomc.generic.service.ServiceManager;
 import com.craftmend.openaudiomc.generic.state.StateService;
+import com.craftmend.openaudiomc.generic.storage.ConfigurationSnapshot;
 import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
 import com.craftmend.openaudiomc.generic.uploads.UploadIndexService;
 import com.craftmend.openaudiomc.generic.utils.data.GsonFactory;
@@ -132,6 +136,10 @@ public class OpenAudioMc {
         // migrate old config and data files between versions
         new MigrationWorker().handleMigrations();
 
+        // capture hot config values now that they are migrated, and re-capture them whenever the config gets reloaded
+        ConfigurationSnapshot.publish(configuration);
+        EventApi.getInstance().registerHandler(SystemReloadEvent.class, event -> ConfigurationSnapshot.publish(configuration));
+
         // handle modules
         serviceManager.loadService(
                 ModuleLoaderService.class      // download, save and use external jar modules
@@ -179,6 +187,8 @@ public class OpenAudioMc {
             }
             serviceManager.getService(OpenaudioAccountService.class).shutdown();
             serviceManager.getService(RedisService.class).shutdown();
+            serviceManager.getService(DatabaseService.class).shutdown();
+            serviceManager.getService(HttpClientService.class).shutdown();
         } catch (NoClassDefFoundError exception) {
             OpenAudioLogger.warn("Core dependencies were already unloaded by the classloader, skipping shutdown");
         }
@@ -6,6 +6,7 @@ import com.craftmend.openaudiomc.generic.platform.Platform;
 import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.generic.utils.data.ConcurrentHeatMap;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.predictive.AudioChunkKey;
 import com.craftmend.openaudiomc.spigot.modules.predictive.PredictiveMediaService;
 import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.AbstractRegionAdapter;
@@ -17,6 +18,7 @@ import org.bukkit.Location;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -50,7 +52,9 @@ public class WorldApiImpl implements WorldApi {
     public Collection<String> getPredictedSources(Location location) {
         if (OpenAudioMc.getInstance().getPlatform() != Platform.SPIGOT) throw new IllegalStateException("This method is only available in a SPIGOT server.");
 
-        ConcurrentHeatMap<String, Byte> chunkContext = getChunkContext(location);
+        // only look, asking for predictions shouldn't create the chunk or make it more likely to be kept
+        ConcurrentHeatMap<String, Byte> chunkContext = getPredictionModule().peekChunkContext(AudioChunkKey.of(location));
+        if (chunkContext == null) return Collections.emptyList();
         List<ConcurrentHeatMap<String, Byte>.Value> vls = chunkContext.getTop(StorageKey.SETTINGS_PRELOAD_SOUNDS.getInt());
 
         return vls
@@ -64,13 +68,10 @@ public class WorldApiImpl implements WorldApi {
     public ConcurrentHeatMap<String, Byte> getChunkContext(Location location) {
         if (OpenAudioMc.getInstance().getPlatform() != Platform.SPIGOT) throw new IllegalStateException("This method is only available in a SPIGOT server.");
 
-        return getPredictionModule()
-                .getChunkTracker()
-                .get(
-                        getPredictionModule().locationToAudioChunkId(location)
-                )
-                .bump()
-                .getContext();
+        // we hand out a mutable context, so assume it changes
+        AudioChunkKey key = AudioChunkKey.of(location);
+        getPredictionModule().markDirty(key);
+        return getPredictionModule().getChunkContext(key);
     }
 
     @Override
@@ -3,27 +3,52 @@ package com.craftmend.openaudiomc.generic.client;
 import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
 import com.craftmend.openaudiomc.generic.client.store.ClientDataStore;
 import com.craftmend.openaudiomc.generic.database.DatabaseService;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
 import com.craftmend.openaudiomc.generic.rest.Task;
 import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.openaudiomc.generic.rest.response.SectionError;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Profiles are cached from the moment they're loaded (usually during pre-login) until the player quits,
+ * entries for players that never made it past the login are evicted once they're too old.
+ * Concurrent requests for the same player share a single database read.
+ */
 @NoArgsConstructor
 public class ClientDataService extends Service {
 
+    private static final int MAX_CACHE_SIZE = 2000;
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long PRELOAD_TIMEOUT_SECONDS = 5;
+
     @Inject
     private DatabaseService db;
     @Inject
     private TaskService taskService;
 
-    private final Map<UUID, ClientDataStore> storeCache = new HashMap<>();
+    private final Map<UUID, CachedStore> storeCache = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<ClientDataStore>> pendingLoads = new ConcurrentHashMap<>();
+
+    @Getter private final AtomicLong cacheHits = new AtomicLong();
+    @Getter private final AtomicLong cacheMisses = new AtomicLong();
+    @Getter private final AtomicLong databaseReads = new AtomicLong();
+
+    @Override
+    public void onEnable() {
+        taskService.scheduleAsyncRepeatingTask(this::evict, 20 * 60, 20 * 60);
+    }
 
     public Task<ClientDataStore> getClientData(UUID owner, boolean store, boolean createEmpty) {
         Task<ClientDataStore> task = new Task<>();
@@ -37,26 +62,53 @@ public class ClientDataService extends Service {
             return task;
         }
 
-        taskService.runAsync(() -> {
-            ClientDataStore cds = db.getRepository(ClientDataStore.class).getWhere("owner", owner);
+        // warm from pre-login, or another request
+        ClientDataStore cached = getCached(owner);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            task.finish(cached);
+            return task;
+        }
+        cacheMisses.incrementAndGet();
+
+        load(owner).whenComplete((cds, error) -> {
+            if (error != null) {
+                OpenAudioLogger.error(error, "Failed to load client data for " + owner);
+            }
+
             if (cds == null && !createEmpty) {
                 task.fail(SectionError.NOT_FOUND);
                 return;
             } else if (cds == null) {
-                cds = new ClientDataStore();
-                cds.setOwner(owner);
-                if (store) {
-                    db.getRepository(ClientDataStore.class).save(cds);
-                }
+                cds = createEmpty(owner, store);
             }
             if (store) {
-                storeCache.put(owner, cds);
+                cache(owner, cds);
             }
             task.finish(cds);
         });
         return task;
     }
 
+    /**
+     * Load the data of a player that's about to join into the cache. This blocks, so it should only be called
+     * from an async login event, which is exactly what makes the main thread join cheap.
+     */
+    public void preload(UUID owner) {
+        if (getCached(owner) != null) return;
+        try {
+            ClientDataStore cds = load(owner).get(PRELOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (cds != null) cache(owner, cds);
+        } catch (Exception e) {
+            // the join will just try again
+            OpenAudioLogger.warn("Failed to preload client data for " + owner + " (" + e.getClass().getSimpleName() + ")");
+        }
+    }
+
+    public int getCacheSize() {
+        return storeCache.size();
+    }
+
     public void dropFromCache(UUID id) {
         storeCache.remove(id);
     }
@@ -67,9 +119,7 @@ public class ClientDataService extends Service {
         db.getRepository(ClientDataStore.class).save(data);
 
         // update cache
-        if (storeCache.containsKey(id)) {
-            storeCache.put(id, data);
-        }
+        storeCache.computeIfPresent(id, (uuid, old) -> new CachedStore(data, System.currentTimeMillis()));
 
         // is the client online? then use it
         ClientConnection onlineClient = getService(NetworkingService.class).getClient(id);
@@ -78,4 +128,85 @@ public class ClientDataService extends Service {
             onlineClient.setDataCache(data);
         }
     }
+
+    private ClientDataStore getCached(UUID owner) {
+        CachedStore cached = storeCache.get(owner);
+        if (cached == null) return null;
+        if (System.currentTimeMillis() - cached.getLoadedAt() > MAX_AGE_MILLIS && !getService(NetworkingService.class).hasClient(owner)) {
+            storeCache.remove(owner, cached);
+            return null;
+        }
+        return cached.getStore();
+    }
+
+    private void cache(UUID owner, ClientDataStore cds) {
+        storeCache.put(owner, new CachedStore(cds, System.currentTimeMillis()));
+        if (storeCache.size() > MAX_CACHE_SIZE) evict();
+    }
+
+    /**
+     * Read a profile from the database, or join a read that's already running for the same player
+     */
+    private CompletableFuture<ClientDataStore> load(UUID owner) {
+        CompletableFuture<ClientDataStore> created = new CompletableFuture<>();
+        CompletableFuture<ClientDataStore> running = pendingLoads.putIfAbsent(owner, created);
+        if (running != null) return running;
+
+        databaseReads.incrementAndGet();
+        taskService.runAsync(() -> {
+            try {
+                created.complete(db.getRepository(ClientDataStore.class).getWhere("owner", owner));
+            } catch (Exception e) {
+                created.completeExceptionally(e);
+            } finally {
+                pendingLoads.remove(owner, created);
+            }
+        });
+        return created;
+    }
+
+    private ClientDataStore createEmpty(UUID owner, boolean store) {
+        if (!store) {
+            ClientDataStore cds = new ClientDataStore();
+            cds.setOwner(owner);
+            return cds;
+        }
+
+        // two requests that both missed shouldn't both insert a row
+        synchronized (this) {
+            ClientDataStore cached = getCached(owner);
+            if (cached != null) return cached;
+            ClientDataStore cds = new ClientDataStore();
+            cds.setOwner(owner);
+            db.getRepository(ClientDataStore.class).save(cds);
+            cache(owner, cds);
+            return cds;
+        }
+    }
+
+    /**
+     * Drop expired profiles of players that aren't online, and the oldest ones if we're still over the limit
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        NetworkingService networkingService = getService(NetworkingService.class);
+        storeCache.entrySet().removeIf(entry -> now - entry.getValue().getLoadedAt() > MAX_AGE_MILLIS
+                && !networkingService.hasClient(entry.getKey()));
+
+        int excess = storeCache.size() - MAX_CACHE_SIZE;
+        if (excess <= 0) return;
+        storeCache.entrySet().stream()
+                .filter(entry -> !networkingService.hasClient(entry.getKey()))
+                .sorted((a, b) -> Long.compare(a.getValue().getLoadedAt(), b.getValue().getLoadedAt()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .forEach(storeCache::remove);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedStore {
+        private ClientDataStore store;
+        private long loadedAt;
+    }
 }
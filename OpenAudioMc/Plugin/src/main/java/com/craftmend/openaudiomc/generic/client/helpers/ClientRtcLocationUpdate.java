@@ -6,13 +6,13 @@ import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.spigot.services.world.interfaces.IRayTracer;
 import com.craftmend.openaudiomc.spigot.services.world.tracing.DummyTracer;
 import com.craftmend.openaudiomc.spigot.services.world.tracing.EstimatedRayTracer;
-import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
+@Getter
 @NoArgsConstructor
-@AllArgsConstructor
 public class ClientRtcLocationUpdate {
 
 //    private static final boolean PROCESS_OBSTRUCTIONS = StorageKey.SETTINGS_VC_PROCESS_OBSTRUCTIONS.getBoolean();
@@ -22,6 +22,37 @@ public class ClientRtcLocationUpdate {
     private double x, y, z;
     private int obstructions;
 
+    // filled in by the PeerLocationStream when this update gets sent, only used by the compact wire format
+    private transient int streamId = -1;
+    private transient boolean keyframe;
+    private transient int quantizedX, quantizedY, quantizedZ;
+    private transient int deltaX, deltaY, deltaZ;
+
+    public ClientRtcLocationUpdate(String streamKey, double x, double y, double z, int obstructions) {
+        this.streamKey = streamKey;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.obstructions = obstructions;
+    }
+
+    /**
+     * Snap this update to the quantized position that is actually sent, and remember how it relates to the previous one
+     */
+    public void quantize(int streamId, boolean keyframe, int x, int y, int z, int deltaX, int deltaY, int deltaZ, int stepsPerBlock) {
+        this.streamId = streamId;
+        this.keyframe = keyframe;
+        this.quantizedX = x;
+        this.quantizedY = y;
+        this.quantizedZ = z;
+        this.deltaX = deltaX;
+        this.deltaY = deltaY;
+        this.deltaZ = deltaZ;
+        this.x = x / (double) stepsPerBlock;
+        this.y = y / (double) stepsPerBlock;
+        this.z = z / (double) stepsPerBlock;
+    }
+
     public static ClientRtcLocationUpdate fromClientWithLocation(ClientConnection clientConnection, Location source, Vector3 targetLocation) {
         int obstructions = 0;
 //
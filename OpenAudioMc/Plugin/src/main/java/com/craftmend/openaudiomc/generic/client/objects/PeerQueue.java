@@ -5,26 +5,24 @@ import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketC
 import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientSubscribeToVoice;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceDropPayload;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceSubscribePayload;
+import lombok.AllArgsConstructor;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Drops and subscriptions that still have to be sent to a client, drained once per peer tick.
+ * Only the last change per stream matters (a drop cancels a pending subscription and the other way around),
+ * so they're kept in a single map keyed by stream key instead of two sets that have to be searched.
+ */
 public class PeerQueue {
 
-    private final Set<String> dropQueue = new HashSet<>();
-    private final Set<ClientVoiceSubscribePayload.SerializedPeer> subscribeQueue = new HashSet<>();
-
-    private final Lock lock = new ReentrantLock();
+    private final Map<String, PendingChange> pending = new ConcurrentHashMap<>();
 
     public void drop(String streamKey) {
-        lock.lock();
-        dropQueue.add(streamKey);
-
-        // do we have a sub queued? if so, remove it
-        subscribeQueue.removeIf(clientVoiceSubscribePayload -> clientVoiceSubscribePayload.getStreamKey().equals(streamKey));
-        lock.unlock();
+        pending.put(streamKey, new PendingChange(null));
     }
 
     public void addSubscribe(
@@ -33,36 +31,49 @@ public class PeerQueue {
             VoicePeerOptions options
     ) {
         ClientVoiceSubscribePayload.SerializedPeer peer = ClientVoiceSubscribePayload.SerializedPeer.fromClient(toListenTo, originLocation, options);
-        lock.lock();
+        // overwrites an older subscription (it's possible for this to be called twice with different options) or a drop
+        pending.put(peer.getStreamKey(), new PendingChange(peer));
+    }
 
-        // remove old, if present, its possible for this to be called twice with different options
-        subscribeQueue.removeIf(clientVoiceSubscribePayload -> clientVoiceSubscribePayload.getStreamKey().equals(peer.getStreamKey()));
+    public void flushDropsAndSubscriptions(ClientConnection toSendTo) {
+        if (pending.isEmpty()) return;
 
-        subscribeQueue.add(peer);
+        List<String> drops = new ArrayList<>();
+        List<ClientVoiceSubscribePayload.SerializedPeer> subscriptions = new ArrayList<>();
 
-        // do we have a drop queued? if so, remove it
-        dropQueue.removeIf(sk -> sk.equals(peer.getStreamKey()));
-        lock.unlock();
-    }
+        for (Map.Entry<String, PendingChange> entry : pending.entrySet()) {
+            PendingChange change = entry.getValue();
+            // changed while we were draining, that one goes out next tick
+            if (!pending.remove(entry.getKey(), change)) continue;
 
-    public void flushDropsAndSubscriptions(ClientConnection toSendTo) {
-        lock.lock();
-        if (!dropQueue.isEmpty()) {
-            String[] streamKeys = dropQueue.toArray(new String[0]);
+            if (change.subscription == null) {
+                drops.add(entry.getKey());
+            } else {
+                subscriptions.add(change.subscription);
+            }
+        }
+
+        if (!drops.isEmpty()) {
+            // the client forgets about these streams, so their next location has to be sent in full again
+            for (String streamKey : drops) {
+                toSendTo.getRtcSessionManager().getLocationStream().forget(streamKey);
+            }
             toSendTo.sendPacket(new PacketClientDropVoiceStream(
-                    new ClientVoiceDropPayload(streamKeys)
+                    new ClientVoiceDropPayload(drops.toArray(new String[0]))
             ));
-            dropQueue.clear();
         }
 
-        if (!subscribeQueue.isEmpty()) {
-            ClientVoiceSubscribePayload.SerializedPeer[] peers = subscribeQueue.toArray(new ClientVoiceSubscribePayload.SerializedPeer[0]);
+        if (!subscriptions.isEmpty()) {
             toSendTo.sendPacket(new PacketClientSubscribeToVoice(
-                    new ClientVoiceSubscribePayload(peers)
+                    new ClientVoiceSubscribePayload(subscriptions.toArray(new ClientVoiceSubscribePayload.SerializedPeer[0]))
             ));
-            subscribeQueue.clear();
         }
-        lock.unlock();
+    }
+
+    @AllArgsConstructor
+    private static class PendingChange {
+        // null if the stream should be dropped
+        private final ClientVoiceSubscribePayload.SerializedPeer subscription;
     }
 
 }
@@ -0,0 +1,118 @@
+package com.craftmend.openaudiomc.generic.client.session;
+
+import com.craftmend.openaudiomc.generic.client.helpers.ClientRtcLocationUpdate;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Peer locations that still have to be sent to a single client.
+ * Only the newest location of every peer is kept, and when the queue gets drained, locations that are within
+ * the configured precision of what the client already has get skipped.
+ * Positions are snapped to a grid of 1/STEPS_PER_BLOCK of a block, so the compact wire format can send them as
+ * small integer deltas from the last value this client received. Every peer gets a small numeric id the
+ * first time it is sent (a keyframe, with the full stream key and position), after that only the id is used.
+ */
+public class PeerLocationStream {
+
+    public static final int STEPS_PER_BLOCK = 32;
+
+    private final Map<String, ClientRtcLocationUpdate> pending = new ConcurrentHashMap<>();
+    private final Map<String, SentLocation> sent = new HashMap<>();
+    private int nextStreamId = 0;
+
+    @Getter private long offered = 0;
+    @Getter private long skipped = 0;
+
+    public void offer(ClientRtcLocationUpdate update) {
+        pending.put(update.getStreamKey(), update);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * @param precisionCentimeters movement (in centimeters, or 1/100th of a block) below which a location is not worth sending
+     * @return the updates that should be sent, quantized and with their deltas filled in
+     */
+    public synchronized List<ClientRtcLocationUpdate> drain(int precisionCentimeters) {
+        List<ClientRtcLocationUpdate> updates = new ArrayList<>(pending.size());
+        if (pending.isEmpty()) return updates;
+
+        double precisionSteps = Math.max(0, precisionCentimeters) * STEPS_PER_BLOCK / 100.0;
+        double precisionSquared = precisionSteps * precisionSteps;
+
+        for (Map.Entry<String, ClientRtcLocationUpdate> entry : pending.entrySet()) {
+            ClientRtcLocationUpdate update = entry.getValue();
+            // a newer location came in while draining, that one will go out next time
+            if (!pending.remove(entry.getKey(), update)) continue;
+            offered++;
+
+            int x = quantize(update.getX());
+            int y = quantize(update.getY());
+            int z = quantize(update.getZ());
+
+            SentLocation last = sent.get(update.getStreamKey());
+            if (last == null) {
+                last = new SentLocation(nextStreamId++);
+                sent.put(update.getStreamKey(), last);
+                update.quantize(last.streamId, true, x, y, z, 0, 0, 0, STEPS_PER_BLOCK);
+            } else {
+                long dx = x - last.x;
+                long dy = y - last.y;
+                long dz = z - last.z;
+                long distanceSquared = dx * dx + dy * dy + dz * dz;
+
+                // the client already knows about this, or close enough
+                if (update.getObstructions() == last.obstructions && (distanceSquared == 0 || distanceSquared < precisionSquared)) {
+                    skipped++;
+                    continue;
+                }
+
+                update.quantize(last.streamId, false, x, y, z, (int) dx, (int) dy, (int) dz, STEPS_PER_BLOCK);
+            }
+
+            last.x = x;
+            last.y = y;
+            last.z = z;
+            last.obstructions = update.getObstructions();
+            updates.add(update);
+        }
+
+        return updates;
+    }
+
+    /**
+     * The client stopped listening to this peer, so the next location for it should be a keyframe again
+     */
+    public synchronized void forget(String streamKey) {
+        pending.remove(streamKey);
+        sent.remove(streamKey);
+    }
+
+    /**
+     * Start over, for when the receiving end lost track of what it got (like reconnects)
+     */
+    public synchronized void reset() {
+        pending.clear();
+        sent.clear();
+        nextStreamId = 0;
+    }
+
+    private static int quantize(double value) {
+        return (int) Math.round(value * STEPS_PER_BLOCK);
+    }
+
+    private static class SentLocation {
+        private final int streamId;
+        private int x, y, z;
+        private int obstructions;
+
+        private SentLocation(int streamId) {
+            this.streamId = streamId;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.craftmend.openaudiomc.generic.client.session;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The proximity peers a client listens to. Every change also updates the listeners of the peer on the other end,
+ * so both directions of the peer graph stay known without going over every client.
+ */
+class PeerSet extends AbstractSet<UUID> {
+
+    private final Set<UUID> peers = ConcurrentHashMap.newKeySet();
+    private final ClientConnection owner;
+
+    PeerSet(ClientConnection owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean add(UUID peer) {
+        if (!peers.add(peer)) return false;
+        ClientConnection connection = OpenAudioMc.getService(NetworkingService.class).getClient(peer);
+        if (connection != null) {
+            connection.getRtcSessionManager().getListeners().add(owner.getOwner().getUniqueId());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object peer) {
+        if (!peers.remove(peer)) return false;
+        unlink((UUID) peer);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object peer) {
+        return peers.contains(peer);
+    }
+
+    @Override
+    public int size() {
+        return peers.size();
+    }
+
+    @Override
+    public void clear() {
+        for (UUID peer : peers) {
+            remove(peer);
+        }
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        Iterator<UUID> iterator = peers.iterator();
+        return new Iterator<UUID>() {
+            private UUID current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public UUID next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                unlink(current);
+            }
+        };
+    }
+
+    private void unlink(UUID peer) {
+        ClientConnection connection = OpenAudioMc.getService(NetworkingService.class).getClient(peer);
+        if (connection != null) {
+            connection.getRtcSessionManager().getListeners().remove(owner.getOwner().getUniqueId());
+        }
+    }
+
+}
@@ -26,9 +26,7 @@ import lombok.Setter;
 import org.bukkit.Location;
 
 import java.io.Serializable;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class RtcSessionManager implements Serializable {
@@ -41,9 +39,12 @@ public class RtcSessionManager implements Serializable {
     @Getter
     private final transient Set<UUID> currentGlobalPeers = ConcurrentHashMap.newKeySet();
     @Getter
-    private final transient Set<UUID> currentProximityPeers = ConcurrentHashMap.newKeySet();
+    private final transient Set<UUID> currentProximityPeers;
+    // the reverse of currentProximityPeers, everyone that has this client as a proximity peer
     @Getter
-    private final transient Set<ClientRtcLocationUpdate> locationUpdateQueue = ConcurrentHashMap.newKeySet();
+    private final transient Set<UUID> listeners = ConcurrentHashMap.newKeySet();
+    @Getter
+    private final transient PeerLocationStream locationStream = new PeerLocationStream();
     @Getter
     private final transient Set<RtcBlockReason> blockReasons = new HashSet<>();
     @Getter
@@ -70,6 +71,7 @@ public class RtcSessionManager implements Serializable {
     public RtcSessionManager(ClientConnection clientConnection) {
         this.streamKey = new RandomString(15).nextString();
         this.clientConnection = clientConnection;
+        this.currentProximityPeers = new PeerSet(clientConnection);
 
         this.clientConnection.onDisconnect(() -> {
             // go over all other clients, check if we might have a relations ship and break up if thats the case
@@ -77,7 +79,7 @@ public class RtcSessionManager implements Serializable {
             currentGlobalPeers.clear();
             this.isMicrophoneEnabled = false;
             makePeersDrop();
-            locationUpdateQueue.clear();
+            locationStream.reset();
         });
     }
 
@@ -154,10 +156,7 @@ public class RtcSessionManager implements Serializable {
     }
 
     public void makePeersDrop() {
-        for (ClientConnection peer : OpenAudioMc.getService(NetworkingService.class).getClients()) {
-            if (peer.getOwner().getUniqueId() == clientConnection.getOwner().getUniqueId())
-                continue;
-
+        for (ClientConnection peer : listeningPeers()) {
             if (peer.getRtcSessionManager().currentProximityPeers.contains(clientConnection.getOwner().getUniqueId())) {
                 // send unsub packet
                 peer.getRtcSessionManager().currentProximityPeers.remove(clientConnection.getOwner().getUniqueId());
@@ -178,12 +177,9 @@ public class RtcSessionManager implements Serializable {
     }
 
     public void forceUpdateLocation(Location location) {
-        for (ClientConnection peer : OpenAudioMc.getService(NetworkingService.class).getClients()) {
-            if (peer.getOwner().getUniqueId() == clientConnection.getOwner().getUniqueId())
-                continue;
-
+        for (ClientConnection peer : listeningPeers()) {
             if (peer.getRtcSessionManager().currentProximityPeers.contains(clientConnection.getOwner().getUniqueId())) {
-                peer.getRtcSessionManager().locationUpdateQueue.add(
+                peer.getRtcSessionManager().locationStream.offer(
                         ClientRtcLocationUpdate
                                 .fromClientWithLocation(clientConnection, location, Vector3.from(peer))
                 );
@@ -191,6 +187,24 @@ public class RtcSessionManager implements Serializable {
         }
     }
 
+    /**
+     * @return the connected clients that have this client as a proximity peer
+     */
+    private List<ClientConnection> listeningPeers() {
+        List<ClientConnection> peers = new ArrayList<>(listeners.size());
+        UUID self = clientConnection.getOwner().getUniqueId();
+        for (UUID listener : listeners) {
+            ClientConnection peer = OpenAudioMc.getService(NetworkingService.class).getClient(listener);
+            // gone, or reconnected without us as their peer
+            if (peer == null || !peer.getRtcSessionManager().currentProximityPeers.contains(self)) {
+                listeners.remove(listener);
+                continue;
+            }
+            if (!listener.equals(self)) peers.add(peer);
+        }
+        return peers;
+    }
+
     public void updateLocationWatcher() {
         if (OpenAudioMc.getInstance().getPlatform() == Platform.SPIGOT) {
             SpigotConnection spigotConnection = OpenAudioMc.getService(SpigotPlayerService.class).getClient(clientConnection.getOwner().getUniqueId());
@@ -10,6 +10,7 @@ import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.modules.ModuleLoaderService;
 import com.craftmend.openaudiomc.generic.mojang.store.MojangProfile;
 import com.craftmend.openaudiomc.generic.platform.Platform;
+import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.openaudiomc.generic.service.Service;
 import com.craftmend.openaudiomc.spigot.modules.predictive.sorage.StoredWorldChunk;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
@@ -23,34 +24,43 @@ import com.craftmend.openaudiomc.spigot.modules.shortner.data.Alias;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
 import com.craftmend.storm.Storm;
 import com.craftmend.storm.StormOptions;
+import com.craftmend.storm.api.markers.Table;
 import com.craftmend.storm.connection.sqlite.SqliteFileDriver;
 import com.craftmend.storm.logger.StormLogger;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import lombok.Getter;
 import lombok.SneakyThrows;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DatabaseService extends Service implements StormLogger {
 
-    private final Map<Class<? extends DataStore>, Repository<? extends DataStore>> databaseMap = new HashMap<>();
+    private final Map<Class<? extends DataStore>, Repository<? extends DataStore>> databaseMap = new ConcurrentHashMap<>();
 
     @Getter private Storm storm;
+    // serializes blob columns the way Storm does, with the same type adapters
+    @Getter private Gson stormGson;
+    private File databaseFile;
+    private int flushTask = -1;
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
 
     @SneakyThrows
     public DatabaseService() {
-        File storageDir = MagicValue.STORAGE_DIRECTORY.get(File.class);
-
         StormOptions options = new StormOptions();
         options.setLogger(this);
         options.getTypeAdapters().put(Rule.class, new RuleTypeAdapter());
         options.getTypeAdapters().put(RuleTest.class, new RuleTestTypeAdapter());
+        GsonBuilder gsonBuilder = new GsonBuilder();
+        options.getTypeAdapters().forEach(gsonBuilder::registerTypeAdapter);
+        stormGson = gsonBuilder.create();
 
         Class.forName("org.sqlite.JDBC");
-        storm = new Storm(options, new SqliteFileDriver(new File(storageDir, "storm.db")));
+        databaseFile = resolveDatabaseFile();
+        storm = new Storm(options, new SqliteFileDriver(databaseFile));
         //storm.setGson(OpenAudioMc.getGson());
 
         // warmup tables
@@ -72,10 +82,45 @@ public class DatabaseService extends Service implements StormLogger {
         for (Class<? extends DataStore> table : tables) {
             getRepository(table);
         }
+
+        // columns we look rows up by, or purge on
+        createIndexes(Alias.class, "name");
+        createIndexes(ClientDataStore.class, "owner");
+        createIndexes(MojangProfile.class, "uuid", "name", "last_seen");
+        createIndexes(StoredWorldChunk.class, "chunk_name");
+
+        // write queued models in the background
+        flushTask = OpenAudioMc.resolveDependency(TaskService.class).scheduleAsyncRepeatingTask(this::flushAll, 20 * 5, 20 * 5);
+    }
+
+    /**
+     * Write everything that's still queued in any repository
+     *
+     * @return how many models failed to write, and are still queued
+     */
+    public int flushAll() {
+        int failed = 0;
+        for (Repository<? extends DataStore> repository : databaseMap.values()) {
+            failed += repository.flush();
+        }
+        return failed;
     }
 
     public void shutdown() {
         OpenAudioLogger.info("Closing database");
+        if (flushTask != -1) {
+            OpenAudioMc.resolveDependency(TaskService.class).cancelRepeatingTask(flushTask);
+            flushTask = -1;
+        }
+        // a flush can fail because the database is busy, so give it a few tries
+        int failed = flushAll();
+        for (int attempt = 1; failed > 0 && attempt < SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            failed = flushAll();
+        }
+        // whatever is left now is lost, make sure that doesn't go unnoticed
+        for (Repository<? extends DataStore> repository : databaseMap.values()) {
+            repository.discardPendingWrites();
+        }
         databaseMap.clear();
     }
 
@@ -92,6 +137,71 @@ public class DatabaseService extends Service implements StormLogger {
         return createdTable;
     }
 
+    /**
+     * Storm doesn't do secondary indexes, so we add them ourselves for columns we query on.
+     * This is just an optimization, so failing to create one is only logged.
+     */
+    private void createIndexes(Class<? extends DataStore> model, String... columns) {
+        try (Connection connection = openConnection()) {
+            String table = findTable(connection, model);
+            if (table == null) {
+                OpenAudioLogger.warn("Couldn't find the table of " + model.getSimpleName() + ", skipping indexes");
+                return;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                for (String column : columns) {
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_" + column + " ON " + table + " (" + column + ")");
+                }
+            }
+        } catch (SQLException e) {
+            OpenAudioLogger.warn("Failed to create indexes for " + model.getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Open a connection of our own to the database, for the things Storm doesn't do. Close it when you're done.
+     */
+    public Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        // Storm writes through its own connection, wait for it to finish instead of failing right away
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = 5000");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    public static File resolveDatabaseFile() {
+        return new File(MagicValue.STORAGE_DIRECTORY.get(File.class), "storm.db");
+    }
+
+    /**
+     * Find the name Storm gave to the table of a model, or null if it doesn't exist (yet)
+     */
+    public static String findTable(Connection connection, Class<? extends DataStore> model) throws SQLException {
+        Set<String> candidates = new LinkedHashSet<>();
+        Table table = model.getAnnotation(Table.class);
+        if (table != null) candidates.add(table.name());
+        String snake = model.getSimpleName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+        candidates.add(snake + "s");
+        candidates.add(model.getSimpleName().toLowerCase() + "s");
+        candidates.add(snake);
+        candidates.add(model.getSimpleName().toLowerCase());
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            for (String candidate : candidates) {
+                statement.setString(1, candidate);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) return resultSet.getString(1);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public void warning(String s) {
         log(s);
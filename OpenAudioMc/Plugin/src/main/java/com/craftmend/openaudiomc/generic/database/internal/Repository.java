@@ -7,26 +7,51 @@ import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.storm.Storm;
 import com.craftmend.storm.api.StormModel;
 import com.craftmend.storm.api.enums.Where;
+import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 
-import java.util.Collection;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class Repository<T extends DataStore> {
 
     private Storm storm;
+    private DatabaseService databaseService;
     private Class<? extends DataStore> type;
+    private RowWriter rowWriter;
+    // why the last write failed, for when we have to give up on queued models
+    private volatile Exception lastFailure;
+
+    // models that are waiting to be written, keyed by their id (or the model itself if it's new)
+    private Map<Object, T> pendingWrites = new LinkedHashMap<>();
+    // held while writing, so deletes can't race with a flush that's still saving the same row
+    private final Object writeLock = new Object();
 
     @SneakyThrows
     public void onCreate(DatabaseService databaseService, Storm storm, Class<? extends DataStore> dataClass) {
         this.storm = storm;
+        this.databaseService = databaseService;
         this.type = dataClass;
+        this.rowWriter = new RowWriter(dataClass, databaseService.getStormGson());
         storm.registerModel(dataClass.getConstructor().newInstance());
         storm.runMigrations();
     }
 
+    /**
+     * Load all rows. Writes that are still queued through {@link #saveLater(DataStore)} get flushed first,
+     * so the result always includes them.
+     */
     @SneakyThrows
     public Collection<T> values() {
-        return (Collection<T>) storm.buildQuery(type).execute().join();
+        flush();
+        return valuesAsync().join();
+    }
+
+    @SneakyThrows
+    public CompletableFuture<Collection<T>> valuesAsync() {
+        return storm.buildQuery(type).execute().thenApply(rows -> (Collection<T>) rows);
     }
 
     @SneakyThrows
@@ -34,14 +59,32 @@ public class Repository<T extends DataStore> {
         return storm.count(type).join();
     }
 
+    /**
+     * Find the first row where a column matches a value. This reads from the database, so writes that are
+     * still queued through {@link #saveLater(DataStore)} aren't visible yet.
+     */
     public T getWhere(String row, Object value) {
         try {
-            return (T) storm.buildQuery(type).where(row, Where.EQUAL, value).execute().join().stream().findFirst().orElse(null);
+            return getWhereAsync(row, value).join();
         } catch (Exception e) {
             return null;
         }
     }
 
+    public CompletableFuture<T> getWhereAsync(String row, Object value) {
+        try {
+            return storm.buildQuery(type).where(row, Where.EQUAL, value).execute()
+                    .thenApply(rows -> {
+                        Iterator<? extends StormModel> iterator = rows.iterator();
+                        return iterator.hasNext() ? (T) iterator.next() : null;
+                    });
+        } catch (Exception e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
     public T castToCompatible(Object o) {
         return (T) o;
     }
@@ -67,6 +110,123 @@ public class Repository<T extends DataStore> {
         }
     }
 
+    /**
+     * Queue a model to be written with the next flush, instead of writing it right away.
+     * Saving the same row multiple times before a flush only writes its latest state once.
+     * New models only get their id once they're flushed, so use {@link #save(DataStore)} if you need it right away.
+     */
+    public void saveLater(T data) {
+        synchronized (this) {
+            pendingWrites.put(keyOf(data), data);
+        }
+    }
+
+    public void saveAllLater(Collection<? extends T> data) {
+        synchronized (this) {
+            for (T t : data) {
+                pendingWrites.put(keyOf(t), t);
+            }
+        }
+    }
+
+    public int getPendingWrites() {
+        synchronized (this) {
+            return pendingWrites.size();
+        }
+    }
+
+    /**
+     * Write everything that's been queued through {@link #saveLater(DataStore)}.
+     * Rows that already exist are updated with one batched statement in a single transaction, new rows are inserted
+     * through Storm first, since they need the id it gives them. If the transaction fails it's rolled back,
+     * and everything that failed gets queued again for the next flush, unless a newer version got queued in the meantime.
+     *
+     * @return how many models are still waiting to be written because they failed
+     */
+    public int flush() {
+        synchronized (writeLock) {
+            Map<Object, T> writes;
+            synchronized (this) {
+                if (pendingWrites.isEmpty()) return 0;
+                writes = pendingWrites;
+                pendingWrites = new LinkedHashMap<>();
+            }
+
+            Map<Object, T> existing = new LinkedHashMap<>();
+            Map<Object, T> failed = new LinkedHashMap<>();
+            for (Map.Entry<Object, T> entry : writes.entrySet()) {
+                if (entry.getValue().getId() != null && rowWriter.isUsable()) {
+                    existing.put(entry.getKey(), entry.getValue());
+                } else {
+                    saveThroughStorm(entry, failed);
+                }
+            }
+
+            if (!existing.isEmpty()) {
+                writeBatch(existing, failed);
+            }
+
+            if (!failed.isEmpty()) {
+                synchronized (this) {
+                    for (Map.Entry<Object, T> entry : failed.entrySet()) {
+                        pendingWrites.putIfAbsent(entry.getKey(), entry.getValue());
+                    }
+                }
+                OpenAudioLogger.warn("Failed to write " + failed.size() + " of " + writes.size() + " queued " + type.getSimpleName() + " models, trying again with the next flush");
+            }
+            return failed.size();
+        }
+    }
+
+    private void writeBatch(Map<Object, T> rows, Map<Object, T> failed) {
+        try (Connection connection = databaseService.openConnection()) {
+            Integer sampleId = rows.values().iterator().next().getId();
+            if (!rowWriter.prepare(connection, sampleId, id -> getWhere("id", id))) {
+                for (Map.Entry<Object, T> entry : rows.entrySet()) saveThroughStorm(entry, failed);
+                return;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                rowWriter.update(connection, rows.values());
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            lastFailure = e;
+            failed.putAll(rows);
+        }
+    }
+
+    private void saveThroughStorm(Map.Entry<Object, T> entry, Map<Object, T> failed) {
+        try {
+            storm.save(entry.getValue());
+        } catch (Exception e) {
+            lastFailure = e;
+            failed.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Give up on everything that's still queued, logging every model that won't be written.
+     * Only for when we can't flush again, like when the database is closed.
+     */
+    public void discardPendingWrites() {
+        Map<Object, T> dropped;
+        synchronized (this) {
+            if (pendingWrites.isEmpty()) return;
+            dropped = pendingWrites;
+            pendingWrites = new LinkedHashMap<>();
+        }
+
+        Exception cause = lastFailure != null ? lastFailure : new IllegalStateException("queued after the last flush");
+        for (T model : dropped.values()) {
+            OpenAudioLogger.error(cause, "Dropped an unsaved " + type.getSimpleName() + (model.getId() == null ? " (new row)" : " (id " + model.getId() + ")"));
+        }
+    }
+
     @SneakyThrows
     public void saveUnsafe(Object data) {
         storm.save((StormModel) data);
@@ -74,6 +234,37 @@ public class Repository<T extends DataStore> {
 
     @SneakyThrows
     public void delete(StormModel key) {
-        storm.delete(key);
+        synchronized (writeLock) {
+            // don't let a queued write bring it back
+            synchronized (this) {
+                pendingWrites.remove(keyOf(key));
+            }
+            if (key.getId() == null) return;
+            storm.delete(key);
+        }
+    }
+
+    private static Object keyOf(StormModel model) {
+        if (model.getId() != null) return model.getId();
+        return new NewModelKey(model);
+    }
+
+    /**
+     * Models that haven't been written yet don't have an id, and some models implement equals() on their content.
+     * Those are identified by the instance itself.
+     */
+    @AllArgsConstructor
+    private static final class NewModelKey {
+        private final StormModel model;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof NewModelKey && ((NewModelKey) o).model == model;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(model);
+        }
     }
 }
@@ -0,0 +1,190 @@
+package com.craftmend.openaudiomc.generic.database.internal;
+
+import com.craftmend.openaudiomc.generic.database.DatabaseService;
+import com.craftmend.storm.api.StormModel;
+import com.craftmend.storm.api.enums.ColumnType;
+import com.craftmend.storm.api.markers.Column;
+import com.google.gson.Gson;
+import lombok.AllArgsConstructor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Writes existing rows of one model straight to their table, so a flush can update all of them with a single
+ * batched statement in one transaction, instead of a statement (and a transaction) per row through Storm.
+ * Storm decides how values are stored, so before this is used we read back a row Storm wrote and check that we'd
+ * write every column of it exactly the same. If we wouldn't, or the model has columns we don't know how to write,
+ * the repository keeps saving through Storm.
+ */
+class RowWriter {
+
+    private final Class<? extends DataStore> type;
+    private final Gson gson;
+
+    // null until a row has been checked
+    private Boolean supported;
+    private String updateQuery;
+    private final List<WritableColumn> columns = new ArrayList<>();
+
+    RowWriter(Class<? extends DataStore> type, Gson gson) {
+        this.type = type;
+        this.gson = gson;
+    }
+
+    /**
+     * @return false if we know these rows have to be saved through Storm
+     */
+    boolean isUsable() {
+        return supported == null || supported;
+    }
+
+    /**
+     * Check (once) if we can write this model ourselves, by comparing what we'd write for a stored row
+     * against what Storm actually wrote for it.
+     *
+     * @param sampleId         id of a row that should exist
+     * @param loadThroughStorm loads a row by its id, like the rest of the plugin would
+     * @return true if {@link #update(Connection, Collection)} can be used
+     */
+    boolean prepare(Connection connection, Integer sampleId, Function<Integer, ? extends DataStore> loadThroughStorm) throws SQLException {
+        if (supported != null) return supported;
+
+        String table = DatabaseService.findTable(connection, type);
+        if (table == null) return false;
+
+        Map<String, String> declaredTypes = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (resultSet.next()) {
+                declaredTypes.put(resultSet.getString("name").toLowerCase(), String.valueOf(resultSet.getString("type")).toUpperCase());
+            }
+        }
+
+        List<WritableColumn> found = findColumns(declaredTypes);
+        if (found == null) {
+            supported = false;
+            return false;
+        }
+
+        DataStore stored = loadThroughStorm.apply(sampleId);
+        if (stored == null) return false;
+
+        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
+            statement.setInt(1, sampleId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                // deleted in the meantime, try again with the next flush
+                if (!resultSet.next()) return false;
+                for (WritableColumn column : found) {
+                    Object ours;
+                    try {
+                        ours = column.read(stored);
+                    } catch (RuntimeException e) {
+                        // a value we can't encode at all, Storm must be doing something else with it
+                        supported = false;
+                        return false;
+                    }
+                    if (!Objects.equals(normalize(ours), normalize(resultSet.getObject(column.name)))) {
+                        supported = false;
+                        return false;
+                    }
+                }
+            }
+        }
+
+        StringJoiner assignments = new StringJoiner(", ");
+        for (WritableColumn column : found) assignments.add(column.name + " = ?");
+        updateQuery = "UPDATE " + table + " SET " + assignments + " WHERE id = ?";
+        columns.addAll(found);
+        supported = true;
+        return true;
+    }
+
+    /**
+     * Add an update for every model to one batch. This doesn't commit, that's up to the caller.
+     */
+    void update(Connection connection, Collection<? extends StormModel> models) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(updateQuery)) {
+            for (StormModel model : models) {
+                int index = 1;
+                for (WritableColumn column : columns) {
+                    statement.setObject(index++, column.read(model));
+                }
+                statement.setInt(index, model.getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private List<WritableColumn> findColumns(Map<String, String> declaredTypes) {
+        List<WritableColumn> found = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != StormModel.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                Column column = field.getAnnotation(Column.class);
+                if (column == null || Modifier.isStatic(field.getModifiers())) continue;
+                // relations aren't a column of this table
+                if (column.type() == ColumnType.ONE_TO_MANY) return null;
+
+                String name = column.name().isEmpty()
+                        ? field.getName().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase()
+                        : column.name().toLowerCase();
+                String declaredType = declaredTypes.get(name);
+                if (declaredType == null) return null;
+
+                Function<Object, Object> encoder = encoderFor(field.getType(), column.storeAsBlob(), declaredType);
+                if (encoder == null) return null;
+
+                field.setAccessible(true);
+                found.add(new WritableColumn(name, field, encoder));
+            }
+        }
+        return found.isEmpty() ? null : found;
+    }
+
+    private Function<Object, Object> encoderFor(Class<?> javaType, boolean blob, String declaredType) {
+        if (blob) return gson::toJson;
+        if (javaType.isPrimitive() || javaType == String.class || javaType == Boolean.class || Number.class.isAssignableFrom(javaType)) {
+            return value -> value;
+        }
+        if (javaType == UUID.class) return Object::toString;
+        if (javaType == Instant.class) {
+            if (declaredType.contains("INT")) return value -> ((Instant) value).toEpochMilli();
+            return Object::toString;
+        }
+        return null;
+    }
+
+    /**
+     * Make values comparable regardless of how the driver hands them back (booleans as numbers, text as bytes)
+     */
+    private static String normalize(Object value) {
+        if (value == null) return null;
+        if (value instanceof Boolean) return (Boolean) value ? "1" : "0";
+        if (value instanceof byte[]) return new String((byte[]) value, StandardCharsets.UTF_8);
+        if (value instanceof Float || value instanceof Double) return String.valueOf(((Number) value).doubleValue());
+        if (value instanceof Number) return String.valueOf(((Number) value).longValue());
+        return value.toString();
+    }
+
+    @AllArgsConstructor
+    private static final class WritableColumn {
+        private final String name;
+        private final Field field;
+        private final Function<Object, Object> encoder;
+
+        private Object read(Object model) throws SQLException {
+            try {
+                Object value = field.get(model);
+                return value == null ? null : encoder.apply(value);
+            } catch (IllegalAccessException e) {
+                throw new SQLException("Can't read " + field.getName() + " of " + model.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
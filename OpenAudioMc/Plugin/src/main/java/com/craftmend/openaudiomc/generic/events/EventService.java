@@ -13,14 +13,19 @@ import lombok.SneakyThrows;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class EventService extends Service implements EventApi {
 
-    private final Map<Class<? extends BaseEvent>, List<EventMethod>> eventHandlers = new ConcurrentHashMap<>();
+    private static final EventMethod[] NO_HANDLERS = new EventMethod[0];
+
+    // handler arrays are copy-on-write, so dispatching never has to lock or copy
+    private final Map<Class<? extends BaseEvent>, EventMethod[]> eventHandlers = new ConcurrentHashMap<>();
+    // resolved handlers per concrete event type, including those of its super types. Dropped on every (un)register
+    private final Map<Class<?>, EventMethod[]> dispatchTable = new ConcurrentHashMap<>();
 
     public EventService() {
         // register register events
@@ -43,30 +48,59 @@ public class EventService extends Service implements EventApi {
     }
 
     @Override
-    public void unregisterHandlers(Object listener) {
-        for (List<EventMethod> eventMethods : eventHandlers.values()) {
-            eventMethods.removeIf(eventMethod -> eventMethod.matchesHolder(listener));
+    public synchronized void unregisterHandlers(Object listener) {
+        for (Map.Entry<Class<? extends BaseEvent>, EventMethod[]> entry : eventHandlers.entrySet()) {
+            EventMethod[] remaining = Arrays.stream(entry.getValue())
+                    .filter(eventMethod -> !eventMethod.matchesHolder(listener))
+                    .toArray(EventMethod[]::new);
+            if (remaining.length != entry.getValue().length) {
+                entry.setValue(remaining);
+            }
         }
+        dispatchTable.clear();
     }
 
-    private void registerHandler(Class<? extends BaseEvent> eventType, Method method, Object listener, boolean enforceType) {
+    private synchronized void registerHandler(Class<? extends BaseEvent> eventType, Method method, Object listener, boolean enforceType) {
         if (enforceType && !BaseEvent.class.isAssignableFrom(eventType)) {
             throw new IllegalArgumentException("Event handler " + method.getName() + " in " + listener.getClass().getSimpleName() + " has an invalid parameter type (" + eventType.getName() + ")");
         }
-        eventHandlers.computeIfAbsent(eventType, k -> new ArrayList<>()).add(new EventMethod(listener, method));
+        EventMethod[] current = eventHandlers.getOrDefault(eventType, NO_HANDLERS);
+        EventMethod[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new EventMethod(listener, method);
+        eventHandlers.put(eventType, updated);
+        dispatchTable.clear();
     }
 
     @Override
     public BaseEvent callEvent(BaseEvent event) {
-        List<EventMethod> handlers = eventHandlers.get(event.getClass());
-        if (handlers != null && !handlers.isEmpty()) {
-            for (EventMethod handler : handlers) {
-                handler.invoke(event);
-            }
+        EventMethod[] handlers = dispatchTable.get(event.getClass());
+        if (handlers == null) handlers = resolveHandlers(event.getClass());
+
+        for (EventMethod handler : handlers) {
+            handler.invoke(event);
         }
         return event;
     }
 
+    /**
+     * Collect the handlers for an event type, and those of its super classes (up to BaseEvent),
+     * so a handler for ClientEvent also receives ClientConnectEvent. Handlers for the exact type go first.
+     */
+    private synchronized EventMethod[] resolveHandlers(Class<?> eventType) {
+        EventMethod[] cached = dispatchTable.get(eventType);
+        if (cached != null) return cached;
+
+        List<EventMethod> resolved = new ArrayList<>();
+        for (Class<?> type = eventType; type != null && BaseEvent.class.isAssignableFrom(type); type = type.getSuperclass()) {
+            EventMethod[] handlers = eventHandlers.get(type);
+            if (handlers != null) resolved.addAll(Arrays.asList(handlers));
+        }
+
+        EventMethod[] result = resolved.isEmpty() ? NO_HANDLERS : resolved.toArray(NO_HANDLERS);
+        dispatchTable.put(eventType, result);
+        return result;
+    }
+
     @Override
     @SneakyThrows
     public <T extends BaseEvent> void registerHandler(Class<T> event, SingleHandler<T> handler) {
@@ -1,20 +1,36 @@
 package com.craftmend.openaudiomc.generic.events.internal;
 
 
+import com.craftmend.openaudiomc.api.events.SingleHandler;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import lombok.Getter;
 
+import java.lang.invoke.*;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
 
+/**
+ * A registered event handler. Instead of going through reflection on every call, the handler method
+ * gets compiled into a direct invoker once, when it's registered:
+ * - SingleHandler lambdas are just called through their interface
+ * - public methods on classes that our class loader can see are bound through LambdaMetafactory,
+ *   which the JIT can inline like any other call
+ * - everything else (other plugins, non-public classes) goes through a MethodHandle
+ */
 public class EventMethod {
 
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
     @Getter private Object holder;
     private Method method;
+    private final Invoker invoker;
 
     public EventMethod(Object holder, Method method) {
         this.holder = holder;
         this.method = method;
         this.method.setAccessible(true);
+        this.invoker = compile(holder, method);
     }
 
     public boolean matchesHolder(Object holder) {
@@ -23,10 +39,61 @@ public class EventMethod {
 
     public void invoke(Object event) {
         try {
-            method.invoke(holder, event);
-        } catch (Exception e) {
+            invoker.invoke(holder, event);
+        } catch (Throwable e) {
             OpenAudioLogger.error(e, "Failed to invoke event handler " + method.getName() + " in " + holder.getClass().getSimpleName());
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static Invoker compile(Object holder, Method method) {
+        if (holder instanceof SingleHandler && method.getName().equals("handle")) {
+            return (target, event) -> ((SingleHandler<Object>) target).handle(event);
+        }
+
+        if (canBindDirectly(method)) {
+            try {
+                MethodHandle implementation = LOOKUP.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(
+                        LOOKUP,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        implementation,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0])
+                );
+                BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+                return consumer::accept;
+            } catch (Throwable e) {
+                // not the end of the world, the method handle below still beats reflection
+            }
+        }
+
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, event) -> handle.invokeExact(target, event);
+        } catch (IllegalAccessException e) {
+            return (target, event) -> method.invoke(target, event);
+        }
+    }
+
+    private static boolean canBindDirectly(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers())) return false;
+
+        // the generated class lives in our class loader, so it has to be able to resolve the listener class too
+        try {
+            return Class.forName(declaringClass.getName(), false, EventMethod.class.getClassLoader()) == declaringClass
+                    && Class.forName(method.getParameterTypes()[0].getName(), false, EventMethod.class.getClassLoader()) == method.getParameterTypes()[0];
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Invoker {
+        void invoke(Object holder, Object event) throws Throwable;
+    }
+
 }
@@ -66,6 +66,11 @@ public class MigrationWorker {
                 new AddConfigKeyMigration(SETTINGS_SPEAKER_SKIN_UUID, "Add a setting for the speaker skin textures"),
                 new AddConfigKeyMigration(SETTINGS_TRAINCARTS_MUTE_REGIONS, "Add a setting to mute regions and speakers in traincarts"),
                 new AddConfigKeyMigration(SETTINGS_VOICE_PERMISSION_ENABLED, "Add a setting to enable/disable voicechat join permissions"),
+                new AddConfigKeyMigration(SETTINGS_REGION_LOOKUP_CACHE, "Add a setting to cache region lookups per block"),
+                new PredictiveChunkWorldMigration(),    // scope stored media chunks to their world
+                new AddConfigKeyMigration(SETTINGS_VC_LOCATION_PRECISION, "Add a setting for the voicechat location precision"),
+                new MojangProfileDedupMigration(),      // drop duplicate mojang profiles left by older versions
+                new AddConfigKeyMigration(REDIS_BATCH_MESSAGES, "Add a setting to batch redis messages per channel"),
         };
 
         for (SimpleMigration migration : migrations) {
@@ -0,0 +1,63 @@
+package com.craftmend.openaudiomc.generic.migrations.migrations;
+
+import com.craftmend.openaudiomc.generic.database.DatabaseService;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.migrations.MigrationWorker;
+import com.craftmend.openaudiomc.generic.migrations.interfaces.SimpleMigration;
+import com.craftmend.openaudiomc.generic.mojang.store.MojangProfile;
+
+import java.io.File;
+import java.sql.*;
+
+/**
+ * Older versions looked profiles up and inserted them from separate async tasks, so two joins at the same time
+ * could both insert a profile for the same player. Those versions kept updating the first row they found,
+ * so that's the one we keep, the rest gets deleted.
+ * This works on the database file directly, before Storm (and the profile index) are loaded.
+ */
+public class MojangProfileDedupMigration extends SimpleMigration {
+
+    @Override
+    public boolean shouldBeRun(MigrationWorker migrationWorker) {
+        File database = DatabaseService.resolveDatabaseFile();
+        if (!database.exists()) return false;
+
+        try (Connection connection = open(database)) {
+            String table = DatabaseService.findTable(connection, MojangProfile.class);
+            if (table == null) return false;
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT 1 FROM " + table + " GROUP BY uuid HAVING COUNT(*) > 1 LIMIT 1")) {
+                return resultSet.next();
+            }
+        } catch (Exception e) {
+            OpenAudioLogger.warn("Failed to check mojang profiles for duplicates: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(MigrationWorker migrationWorker) {
+        try (Connection connection = open(DatabaseService.resolveDatabaseFile())) {
+            String table = DatabaseService.findTable(connection, MojangProfile.class);
+
+            try (Statement statement = connection.createStatement()) {
+                int removed = statement.executeUpdate("DELETE FROM " + table + " WHERE id NOT IN " +
+                        "(SELECT MIN(id) FROM " + table + " GROUP BY uuid)");
+                OpenAudioLogger.info("Removed " + removed + " duplicate mojang profiles");
+            }
+        } catch (SQLException e) {
+            OpenAudioLogger.error(e, "Failed to remove duplicate mojang profiles");
+        }
+    }
+
+    private Connection open(File database) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The sqlite driver isn't available", e);
+        }
+        return DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath());
+    }
+
+}
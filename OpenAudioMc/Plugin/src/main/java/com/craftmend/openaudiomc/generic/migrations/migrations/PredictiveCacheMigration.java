@@ -7,7 +7,9 @@ import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.migrations.MigrationWorker;
 import com.craftmend.openaudiomc.generic.migrations.interfaces.SimpleMigration;
 import com.craftmend.openaudiomc.generic.platform.Platform;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.predictive.AudioChunkKey;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.SerializedAudioChunk;
 import com.craftmend.openaudiomc.spigot.modules.predictive.sorage.StoredWorldChunk;
 
@@ -45,7 +47,8 @@ public class PredictiveCacheMigration extends SimpleMigration {
                 SerializedAudioChunk.Chunk chunk = entry.getValue();
                 OpenAudioLogger.info("Migrating world section " + name);
 
-                StoredWorldChunk swc = new StoredWorldChunk(name, chunk);
+                // the old cache didn't know about worlds
+                StoredWorldChunk swc = new StoredWorldChunk(AudioChunkKey.fromLegacyName(StorageKey.SETTINGS_DEFAULT_WORLD_NAME.getString(), name), chunk);
                 repo.save(swc);
             }
 
@@ -0,0 +1,132 @@
+package com.craftmend.openaudiomc.generic.migrations.migrations;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.database.DatabaseService;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.migrations.MigrationWorker;
+import com.craftmend.openaudiomc.generic.migrations.interfaces.SimpleMigration;
+import com.craftmend.openaudiomc.generic.platform.Platform;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.spigot.modules.predictive.AudioChunkKey;
+import com.craftmend.openaudiomc.spigot.modules.predictive.sorage.StoredWorldChunk;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Media chunks used to be stored without a world (x@z). This adds the world and packed key columns,
+ * drops the duplicate rows older versions left behind and places the remaining chunks in the default world,
+ * since that's where most of them were recorded.
+ * This works on the database file directly, because Storm can't be trusted to have added the columns yet.
+ */
+public class PredictiveChunkWorldMigration extends SimpleMigration {
+
+    @Override
+    public boolean shouldBeRun(MigrationWorker migrationWorker) {
+        if (OpenAudioMc.getInstance().getPlatform() != Platform.SPIGOT) return false;
+
+        File database = DatabaseService.resolveDatabaseFile();
+        if (!database.exists()) return false;
+
+        try (Connection connection = open(database)) {
+            String table = DatabaseService.findTable(connection, StoredWorldChunk.class);
+            if (table == null) return false;
+
+            Set<String> columns = getColumns(connection, table);
+            if (!columns.contains("world") || !columns.contains("chunk_key")) return true;
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE world IS NULL")) {
+                return resultSet.next() && resultSet.getInt(1) > 0;
+            }
+        } catch (Exception e) {
+            OpenAudioLogger.warn("Failed to check media chunks for migration: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void execute(MigrationWorker migrationWorker) {
+        String world = StorageKey.SETTINGS_DEFAULT_WORLD_NAME.getString();
+        OpenAudioLogger.info("Moving stored media chunks to world " + world);
+
+        try (Connection connection = open(DatabaseService.resolveDatabaseFile())) {
+            String table = DatabaseService.findTable(connection, StoredWorldChunk.class);
+            Set<String> columns = getColumns(connection, table);
+
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    if (!columns.contains("world")) statement.execute("ALTER TABLE " + table + " ADD COLUMN world TEXT");
+                    if (!columns.contains("chunk_key")) statement.execute("ALTER TABLE " + table + " ADD COLUMN chunk_key BIGINT");
+
+                    // older versions inserted every chunk again on every shutdown, only the newest row matters
+                    statement.executeUpdate("DELETE FROM " + table + " WHERE world IS NULL AND id NOT IN " +
+                            "(SELECT MAX(id) FROM " + table + " WHERE world IS NULL GROUP BY chunk_name)");
+                }
+
+                Map<Integer, String> legacyRows = new HashMap<>();
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT id, chunk_name FROM " + table + " WHERE world IS NULL")) {
+                    while (resultSet.next()) {
+                        legacyRows.put(resultSet.getInt(1), resultSet.getString(2));
+                    }
+                }
+
+                int invalid = 0;
+                try (PreparedStatement update = connection.prepareStatement("UPDATE " + table + " SET world = ?, chunk_key = ?, chunk_name = ? WHERE id = ?");
+                     PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+                    for (Map.Entry<Integer, String> row : legacyRows.entrySet()) {
+                        AudioChunkKey key;
+                        try {
+                            key = AudioChunkKey.fromLegacyName(world, row.getValue());
+                        } catch (IllegalArgumentException | NullPointerException e) {
+                            delete.setInt(1, row.getKey());
+                            delete.addBatch();
+                            invalid++;
+                            continue;
+                        }
+
+                        update.setString(1, key.getWorld());
+                        update.setLong(2, key.getPacked());
+                        update.setString(3, key.toString());
+                        update.setInt(4, row.getKey());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                    delete.executeBatch();
+                }
+
+                connection.commit();
+                OpenAudioLogger.info("Moved " + (legacyRows.size() - invalid) + " media chunks, dropped " + invalid + " unreadable ones");
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            OpenAudioLogger.error(e, "Failed to migrate stored media chunks");
+        }
+    }
+
+    private Connection open(File database) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The sqlite driver isn't available", e);
+        }
+        return DriverManager.getConnection("jdbc:sqlite:" + database.getAbsolutePath());
+    }
+
+    private Set<String> getColumns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (resultSet.next()) {
+                columns.add(resultSet.getString("name").toLowerCase());
+            }
+        }
+        return columns;
+    }
+
+}
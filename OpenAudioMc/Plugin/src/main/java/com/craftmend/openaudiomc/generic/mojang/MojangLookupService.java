@@ -14,19 +14,33 @@ import com.craftmend.openaudiomc.api.user.User;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.sql.*;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @NoArgsConstructor
 public class MojangLookupService extends Service {
 
-    @Inject
-    private TaskService taskService;
+    // profiles that haven't been seen for a week get purged
+    private static final long MAX_AGE_SECONDS = 604800;
+    // only write a new last-seen date if the stored one is older than this, it's only used for the purge
+    private static final long LAST_SEEN_RESOLUTION_SECONDS = 86400;
+
     @Getter private Repository<MojangProfile> profileRepository;
+    private DatabaseService databaseService;
+
+    // every stored profile, loaded once on startup and kept in sync with every save
+    private final Map<UUID, MojangProfile> byUuid = new ConcurrentHashMap<>();
+    private final Map<String, MojangProfile> byName = new ConcurrentHashMap<>();
 
     @Inject
     public MojangLookupService(DatabaseService databaseService, TaskService ts, OpenAudioMc openAudioMc) {
+        this.databaseService = databaseService;
         profileRepository = databaseService.getRepository(MojangProfile.class);
+        loadIndex();
         ts.scheduleAsyncRepeatingTask(() -> {
             OpenAudioLogger.info("Starting mojang cleanup, this can take a while...");
             // check every hour if the server is empty
@@ -38,41 +52,108 @@ public class MojangLookupService extends Service {
         // once every 10 bloody hours
     }
 
+    private void loadIndex() {
+        for (MojangProfile profile : profileRepository.values()) {
+            if (profile.getUuid() == null) continue;
+            MojangProfile known = byUuid.get(profile.getUuid());
+            // older versions could store duplicates, the most recent one wins
+            if (known != null && known.getLastSeen() != null && (profile.getLastSeen() == null || known.getLastSeen().isAfter(profile.getLastSeen()))) {
+                continue;
+            }
+            if (known != null && known.getName() != null) byName.remove(known.getName(), known);
+            byUuid.put(profile.getUuid(), profile);
+            if (profile.getName() != null) byName.put(profile.getName(), profile);
+        }
+        OpenAudioLogger.info("Loaded " + byUuid.size() + " mojang profiles");
+    }
+
     private void cleanup() {
-        int removed = 0;
         OpenAudioLogger.info("Purging old accounts of inactive players");
-        for (MojangProfile value : profileRepository.values()) {
-            if (value.getLastSeen() == null || Duration.between(value.getLastSeen(), Instant.now()).getSeconds() > 604800) {
-                removed++;
-                profileRepository.delete(value);
+        Instant cutoff = Instant.now().minusSeconds(MAX_AGE_SECONDS);
+
+        int removed;
+        // hold off saves, so nobody gets seen again between writing the queue and the delete
+        synchronized (this) {
+            // queued last-seen dates have to be in the table before we compare against it
+            profileRepository.flush();
+
+            try (Connection connection = databaseService.openConnection()) {
+                String table = DatabaseService.findTable(connection, MojangProfile.class);
+                if (table == null) return;
+
+                try (PreparedStatement statement = connection.prepareStatement("DELETE FROM " + table + " WHERE last_seen IS NULL OR last_seen < ?")) {
+                    statement.setObject(1, lastSeenColumnValue(connection, table, cutoff));
+                    removed = statement.executeUpdate();
+                }
+            } catch (SQLException e) {
+                OpenAudioLogger.error(e, "Failed to purge old mojang profiles");
+                return;
             }
+
+            byUuid.values().removeIf(profile -> profile.getLastSeen() == null || profile.getLastSeen().isBefore(cutoff));
+            byName.values().removeIf(profile -> profile.getLastSeen() == null || profile.getLastSeen().isBefore(cutoff));
         }
         OpenAudioLogger.info("Removed the profile of " + removed + " players");
     }
 
+    /**
+     * Storm picks how instants are stored, so compare in whatever form the column has
+     */
+    private Object lastSeenColumnValue(Connection connection, String table, Instant instant) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (resultSet.next()) {
+                if (!resultSet.getString("name").equalsIgnoreCase("last_seen")) continue;
+                String declared = String.valueOf(resultSet.getString("type")).toUpperCase();
+                if (declared.contains("INT")) return instant.toEpochMilli();
+            }
+        }
+        return instant.toString();
+    }
+
+    /**
+     * Remember the name of a player. This only hits the database (through a batched write) if their name changed,
+     * or if the last time we wrote their last-seen date was a while ago.
+     */
     public void save(User user) {
-        taskService.runAsync(() -> {
-            MojangProfile previous = profileRepository.getWhere("uuid", user.getUniqueId());
-            if (previous == null) {
-                profileRepository.save(new MojangProfile(user.getName().toLowerCase(), user.getUniqueId(), Instant.now()));
-                return;
+        String name = user.getName().toLowerCase();
+        UUID uuid = user.getUniqueId();
+        Instant now = Instant.now();
+
+        MojangProfile changed;
+        synchronized (this) {
+            MojangProfile profile = byUuid.get(uuid);
+            if (profile == null) {
+                profile = new MojangProfile(name, uuid, now);
+                byUuid.put(uuid, profile);
+                byName.put(name, profile);
+                changed = profile;
+            } else {
+                boolean renamed = !name.equals(profile.getName());
+                boolean stale = profile.getLastSeen() == null || Duration.between(profile.getLastSeen(), now).getSeconds() > LAST_SEEN_RESOLUTION_SECONDS;
+                if (!renamed && !stale) return;
+
+                if (renamed) {
+                    if (profile.getName() != null) byName.remove(profile.getName(), profile);
+                    profile.setName(name);
+                    byName.put(name, profile);
+                }
+                profile.setLastSeen(now);
+                changed = profile;
             }
-            previous.setName(user.getName().toLowerCase());
-            previous.setLastSeen(Instant.now());
-            profileRepository.save(previous);
-        });
+        }
+
+        profileRepository.saveLater(changed);
     }
 
     public Task<MojangProfile> getByName(String name) {
         Task<MojangProfile> task = new Task<>();
-        taskService.runAsync(() -> {
-            MojangProfile mojangProfile = profileRepository.getWhere("name", name.toLowerCase());
-            if (mojangProfile == null) {
-                task.fail(SectionError.NOT_FOUND);
-                return;
-            }
-            task.finish(mojangProfile);
-        });
+        MojangProfile mojangProfile = byName.get(name.toLowerCase());
+        if (mojangProfile == null) {
+            task.fail(SectionError.NOT_FOUND);
+            return task;
+        }
+        task.finish(mojangProfile);
         return task;
     }
 
@@ -6,6 +6,7 @@ import com.craftmend.openaudiomc.api.events.client.ClientAuthenticationEvent;
 import com.craftmend.openaudiomc.generic.authentication.AuthenticationService;
 import com.craftmend.openaudiomc.generic.client.helpers.SerializableClient;
 import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
+import com.craftmend.openaudiomc.generic.networking.queue.OutboundPacketBatcher;
 import com.craftmend.openaudiomc.generic.networking.queue.PacketQueue;
 import com.craftmend.openaudiomc.generic.oac.OpenaudioAccountService;
 import com.craftmend.openaudiomc.generic.environment.MagicValue;
@@ -38,11 +39,17 @@ import java.util.concurrent.locks.ReentrantLock;
 
 public class DefaultNetworkingService extends NetworkingService {
 
+    private static final Set<PacketChannel> IMMEDIATE_CHANNELS = EnumSet.of(
+            PacketChannel.SOCKET_OUT_KICK_CLIENT,
+            PacketChannel.SOCKET_OUT_ACKNOWLEDGEMENT
+    );
+
     @Getter
     private final Set<INetworkingEvents> eventHandlers = new HashSet<>();
     private final Map<UUID, ClientConnection> clientMap = new ConcurrentHashMap<>();
     private final Map<PacketChannel, PayloadHandler<?>> packetHandlerMap = new HashMap<>();
     private final PacketQueue packetQueue = new PacketQueue();
+    @Getter private final OutboundPacketBatcher packetBatcher = new OutboundPacketBatcher();
     private SocketConnection socketConnection;
     private int packetThroughput = 0;
     private Lock connectLock = new ReentrantLock();
@@ -106,6 +113,12 @@ public class DefaultNetworkingService extends NetworkingService {
                                 .forEach(clientConnection -> clientConnection.getSession().tick()),
                         20, 20);
 
+        // flush batched packets every tick, only has work to do if the relay supports batching
+        OpenAudioMc.resolveDependency(TaskService.class)
+                .scheduleAsyncRepeatingTask(() -> {
+                    if (socketConnection != null) packetBatcher.flushAll(this::sendBatch);
+                }, 1, 1);
+
         try {
             socketConnection = new SocketConnection(getService(AuthenticationService.class).getServerKeySet(), this);
         } catch (Exception e) {
@@ -160,9 +173,52 @@ public class DefaultNetworkingService extends NetworkingService {
             }
         }
 
+        // socket level packets (kicks, acknowledgements) can't wait for the next flush
+        if (socketConnection.isBatchedPackets() && !IMMEDIATE_CHANNELS.contains(packet.getPacketChannel())) {
+            packetBatcher.add(client, packet);
+            return;
+        }
+
+        // send whatever is still pending first, so the client sees everything in order
+        packetBatcher.flush(client.getOwner().getUniqueId(), this::sendBatch);
         socketConnection.send(client, packet);
     }
 
+    @Override
+    public void sendAll(Authenticatable client, List<AbstractPacket> packets) {
+        // without batching or while reconnecting, every packet needs its own checks anyway
+        if (!socketConnection.isBatchedPackets() || getService(StateService.class).getCurrentState() instanceof ReconnectingState) {
+            super.sendAll(client, packets);
+            return;
+        }
+
+        for (AbstractPacket packet : packets) {
+            for (INetworkingEvents event : getEvents()) event.onPacketSend(client, packet);
+        }
+
+        // flush what's already pending first, so everything stays in order
+        packetBatcher.flush(client.getOwner().getUniqueId(), this::sendBatch);
+        socketConnection.sendBatch(client, packets);
+    }
+
+    /**
+     * Hand a flushed batch to the socket. Batches can still be pending when we lose the connection, so
+     * while reconnecting they get the same treatment as packets that are sent directly: queue the important
+     * ones for after the reconnect, and drop the rest.
+     */
+    private void sendBatch(Authenticatable client, List<AbstractPacket> packets) {
+        if (getService(StateService.class).getCurrentState() instanceof ReconnectingState) {
+            for (AbstractPacket packet : packets) {
+                if (packet.isQueueableIfReconnecting()) {
+                    packetQueue.addPacket(client.getOwner().getUniqueId(), packet);
+                }
+            }
+            return;
+        }
+
+        socketConnection.sendBatch(client, packets);
+    }
+
     /**
      * a packet got received, this function handles it on to the api for
      * parsing and processing in the plugin
@@ -257,6 +313,7 @@ public class DefaultNetworkingService extends NetworkingService {
             }
 
             client.onDestroy();
+            packetBatcher.discard(playerId);
         }
     }
 
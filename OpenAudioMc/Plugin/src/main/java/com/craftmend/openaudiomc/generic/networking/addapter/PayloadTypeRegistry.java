@@ -0,0 +1,84 @@
+package com.craftmend.openaudiomc.generic.networking.addapter;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.AcknowledgeClientPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientCreateMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientDestroyMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientPreFetchPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.media.ClientUpdateMediaPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerCreatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerDestroyPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerPositionUpdatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientModerationStatusPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientVersionPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientVolumePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.NotificationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.*;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.channels.ClientChannelStatusPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.channels.ClientChannelsDisplayPayload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PayloadTypeRegistry {
+
+    /**
+     * Numeric type ids for outgoing payloads, used by the compact wire format instead of the full class name.
+     * These ids are shared with the relay, so this list is APPEND ONLY. Never re-order or remove entries,
+     * deprecated payloads should just stay in here. Id 0 is reserved for packets without a payload.
+     */
+    private static final Class<?>[] TYPES = new Class<?>[]{
+            null,
+            AcknowledgeClientPayload.class,
+            ClientCreateMediaPayload.class,
+            ClientDestroyMediaPayload.class,
+            ClientPreFetchPayload.class,
+            ClientUpdateMediaPayload.class,
+            ClientPlayerLocationPayload.class,
+            ClientSpeakerCreatePayload.class,
+            ClientSpeakerDestroyPayload.class,
+            ClientSpeakerPositionUpdatePayload.class,
+            ClientModerationStatusPayload.class,
+            ClientVersionPayload.class,
+            ClientVolumePayload.class,
+            NotificationPayload.class,
+            ClientVoiceBlurUiPayload.class,
+            ClientVoiceChatToggleDeafenPayload.class,
+            ClientVoiceChatToggleMicrophonePayload.class,
+            ClientVoiceChatUnlockPayload.class,
+            ClientVoiceDropPayload.class,
+            ClientVoiceOptionsPayload.class,
+            ClientVoiceSubscribePayload.class,
+            ClientVoiceUpdatePeerLocationsPayload.class,
+            ClientChannelStatusPayload.class,
+            ClientChannelsDisplayPayload.class,
+    };
+
+    public static final short NO_PAYLOAD = 0;
+    public static final short UNKNOWN = -1;
+
+    private static final Map<Class<?>, Short> IDS = new HashMap<>();
+
+    static {
+        for (short i = 1; i < TYPES.length; i++) {
+            IDS.put(TYPES[i], i);
+        }
+    }
+
+    /**
+     * @param payload payload instance, can be null
+     * @return the wire id of this payload, or UNKNOWN if it isn't registered
+     */
+    public static short getId(AbstractPacketPayload payload) {
+        if (payload == null) return NO_PAYLOAD;
+        Short id = IDS.get(payload.getClass());
+        return id == null ? UNKNOWN : id;
+    }
+
+    public static Class<?> getType(short id) {
+        if (id <= 0 || id >= TYPES.length) return null;
+        return TYPES[id];
+    }
+
+}
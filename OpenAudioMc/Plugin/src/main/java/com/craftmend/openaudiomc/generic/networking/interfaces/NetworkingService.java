@@ -25,6 +25,15 @@ public abstract class NetworkingService extends Service {
 
     public abstract void connectIfDown();
     public abstract void send(Authenticatable client, AbstractPacket packet);
+
+    /**
+     * Send multiple packets to the same client, in order. Implementations can override this
+     * to hand them off in one go instead of packet by packet.
+     */
+    public void sendAll(Authenticatable client, List<AbstractPacket> packets) {
+        for (AbstractPacket packet : packets) send(client, packet);
+    }
+
     public abstract void triggerPacket(AbstractPacket abstractPacket);
     public abstract void remove(UUID player);
     public abstract void stop();
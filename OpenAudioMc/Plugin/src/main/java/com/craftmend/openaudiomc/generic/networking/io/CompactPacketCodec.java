@@ -0,0 +1,265 @@
+package com.craftmend.openaudiomc.generic.networking.io;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.helpers.ClientRtcLocationUpdate;
+import com.craftmend.openaudiomc.generic.client.session.PeerLocationStream;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacketPayload;
+import com.craftmend.openaudiomc.generic.networking.abstracts.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.addapter.PayloadTypeRegistry;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerPositionUpdatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import com.google.gson.TypeAdapter;
+import lombok.Setter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encoder for the compact (binary) wire format, which the relay can opt into during login.
+ * Spigot nodes behind a proxy also use it to forward packets, which is why frames can be decoded again.
+ * A frame looks like this:
+ * <pre>
+ *     byte    format version
+ *     byte    packet channel ordinal
+ *     bool    has client, followed by two longs (msb, lsb) if true
+ *     short   payload type id, see {@link PayloadTypeRegistry}
+ *     byte    body encoding, BODY_JSON or BODY_BINARY
+ *     ...     body, strings are an int length (-1 for null) followed by utf-8 bytes
+ * </pre>
+ * Payloads that are sent in bulk (locations, speaker and peer updates) have a hand written binary body,
+ * everything else gets a JSON body from a cached Gson adapter for that exact class, so at least the
+ * type lookup and the class name in the frame are skipped.
+ * <br>
+ * When the relay agreed to location deltas, peer locations get a BODY_DELTA body instead. It's a varint count,
+ * followed by a varint (stream id << 1 | keyframe) per peer. Keyframes then have the stream key and the absolute
+ * position, everything else only has the (zigzag varint) difference from the last position of that stream.
+ * Positions are in steps of 1/{@link PeerLocationStream#STEPS_PER_BLOCK} block, and every entry ends with the
+ * obstructions, also as a zigzag varint. See {@link PeerLocationStream} for how ids and deltas are kept.
+ */
+public class CompactPacketCodec {
+
+    public static final String WIRE_FORMAT = "compact-v1";
+    public static final byte VERSION = 1;
+
+    public static final byte BODY_NONE = 0;
+    public static final byte BODY_JSON = 1;
+    public static final byte BODY_BINARY = 2;
+    public static final byte BODY_DELTA = 3;
+
+    private static final PacketChannel[] CHANNELS = PacketChannel.values();
+
+    private final Map<Class<?>, TypeAdapter<Object>> adapters = new ConcurrentHashMap<>();
+    @Setter private volatile boolean locationDeltas = false;
+
+    /**
+     * @param packet packet to encode
+     * @return the encoded frame, or null if this packet can't be represented in the compact format
+     */
+    public byte[] encode(AbstractPacket packet) {
+        AbstractPacketPayload payload = packet.getData();
+        short typeId = PayloadTypeRegistry.getId(payload);
+        if (typeId == PayloadTypeRegistry.UNKNOWN || packet.getPacketChannel() == null) return null;
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(VERSION);
+            out.writeByte(packet.getPacketChannel().ordinal());
+
+            UUID client = packet.getClient();
+            out.writeBoolean(client != null);
+            if (client != null) {
+                out.writeLong(client.getMostSignificantBits());
+                out.writeLong(client.getLeastSignificantBits());
+            }
+
+            out.writeShort(typeId);
+
+            if (payload == null) {
+                out.writeByte(BODY_NONE);
+            } else if (!writeBinary(payload, out)) {
+                out.writeByte(BODY_JSON);
+                writeString(out, adapterFor(payload.getClass()).toJson(payload));
+            }
+        } catch (IOException e) {
+            // can't happen with an in-memory buffer, but let the caller fall back to json just in case
+            return null;
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Read a frame made by {@link #encode(AbstractPacket)} back into a packet. Delta bodies can't be decoded,
+     * because they only make sense to the connection that they were sent over.
+     *
+     * @param frame encoded frame
+     * @return the packet, as a plain AbstractPacket with the original channel, client and payload
+     * @throws IOException if the frame is malformed or uses a body that can't be decoded
+     */
+    public AbstractPacket decode(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        byte version = in.readByte();
+        if (version != VERSION) throw new IOException("Unsupported frame version " + version);
+
+        int channel = in.readUnsignedByte();
+        if (channel >= CHANNELS.length) throw new IOException("Unknown packet channel " + channel);
+
+        UUID client = in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+
+        short typeId = in.readShort();
+        Class<?> type = PayloadTypeRegistry.getType(typeId);
+        byte body = in.readByte();
+
+        AbstractPacketPayload payload;
+        if (body == BODY_NONE) {
+            payload = null;
+        } else if (type == null) {
+            throw new IOException("Unknown payload type " + typeId);
+        } else if (body == BODY_JSON) {
+            payload = (AbstractPacketPayload) adapterFor(type).fromJson(readString(in));
+        } else if (body == BODY_BINARY) {
+            payload = readBinary(type, in);
+        } else {
+            throw new IOException("Can't decode body " + body + " of " + type.getSimpleName());
+        }
+
+        return new AbstractPacket(payload, CHANNELS[channel], client);
+    }
+
+    private static AbstractPacketPayload readBinary(Class<?> type, DataInputStream in) throws IOException {
+        if (type == ClientPlayerLocationPayload.class) {
+            return new ClientPlayerLocationPayload(in.readDouble(), in.readDouble(), in.readDouble(), in.readInt(), in.readInt());
+        }
+
+        if (type == ClientSpeakerPositionUpdatePayload.class) {
+            String speakerId = readString(in);
+            return new ClientSpeakerPositionUpdatePayload(in.readDouble(), in.readDouble(), in.readDouble(), speakerId);
+        }
+
+        if (type == ClientVoiceUpdatePeerLocationsPayload.class) {
+            int count = in.readInt();
+            Set<ClientRtcLocationUpdate> updates = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                updates.add(new ClientRtcLocationUpdate(readString(in), in.readDouble(), in.readDouble(), in.readDouble(), in.readInt()));
+            }
+            return new ClientVoiceUpdatePeerLocationsPayload(updates);
+        }
+
+        throw new IOException(type.getSimpleName() + " doesn't have a binary body");
+    }
+
+    private boolean writeBinary(AbstractPacketPayload payload, DataOutputStream out) throws IOException {
+        if (payload instanceof ClientPlayerLocationPayload) {
+            ClientPlayerLocationPayload location = (ClientPlayerLocationPayload) payload;
+            out.writeByte(BODY_BINARY);
+            out.writeDouble(location.getX());
+            out.writeDouble(location.getY());
+            out.writeDouble(location.getZ());
+            out.writeInt(location.getPitch());
+            out.writeInt(location.getYaw());
+            return true;
+        }
+
+        if (payload instanceof ClientSpeakerPositionUpdatePayload) {
+            ClientSpeakerPositionUpdatePayload update = (ClientSpeakerPositionUpdatePayload) payload;
+            out.writeByte(BODY_BINARY);
+            writeString(out, update.getSpeakerId());
+            out.writeDouble(update.getX());
+            out.writeDouble(update.getY());
+            out.writeDouble(update.getZ());
+            return true;
+        }
+
+        if (payload instanceof ClientVoiceUpdatePeerLocationsPayload) {
+            ClientVoiceUpdatePeerLocationsPayload peers = (ClientVoiceUpdatePeerLocationsPayload) payload;
+            if (locationDeltas && isStreamed(peers)) {
+                writeDeltas(peers, out);
+                return true;
+            }
+
+            out.writeByte(BODY_BINARY);
+            out.writeInt(peers.getUpdateSet().size());
+            for (ClientRtcLocationUpdate update : peers.getUpdateSet()) {
+                writeString(out, update.getStreamKey());
+                out.writeDouble(update.getX());
+                out.writeDouble(update.getY());
+                out.writeDouble(update.getZ());
+                out.writeInt(update.getObstructions());
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private static boolean isStreamed(ClientVoiceUpdatePeerLocationsPayload peers) {
+        // updates that didn't go through a PeerLocationStream (like ones that came in from a proxy) have no id
+        for (ClientRtcLocationUpdate update : peers.getUpdateSet()) {
+            if (update.getStreamId() < 0) return false;
+        }
+        return true;
+    }
+
+    private static void writeDeltas(ClientVoiceUpdatePeerLocationsPayload peers, DataOutputStream out) throws IOException {
+        out.writeByte(BODY_DELTA);
+        writeVarInt(out, peers.getUpdateSet().size());
+        for (ClientRtcLocationUpdate update : peers.getUpdateSet()) {
+            writeVarInt(out, (update.getStreamId() << 1) | (update.isKeyframe() ? 1 : 0));
+            if (update.isKeyframe()) {
+                writeString(out, update.getStreamKey());
+                writeVarInt(out, zigZag(update.getQuantizedX()));
+                writeVarInt(out, zigZag(update.getQuantizedY()));
+                writeVarInt(out, zigZag(update.getQuantizedZ()));
+            } else {
+                writeVarInt(out, zigZag(update.getDeltaX()));
+                writeVarInt(out, zigZag(update.getDeltaY()));
+                writeVarInt(out, zigZag(update.getDeltaZ()));
+            }
+            writeVarInt(out, zigZag(update.getObstructions()));
+        }
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // writeUTF is capped at 64kb, which some json bodies can exceed
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private TypeAdapter<Object> adapterFor(Class<?> type) {
+        return adapters.computeIfAbsent(type, t -> (TypeAdapter<Object>) OpenAudioMc.getGson().getAdapter(t));
+    }
+
+}
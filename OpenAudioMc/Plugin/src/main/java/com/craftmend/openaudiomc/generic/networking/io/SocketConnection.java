@@ -4,6 +4,7 @@ import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.api.EventApi;
 import com.craftmend.openaudiomc.generic.authentication.AuthenticationService;
 import com.craftmend.openaudiomc.generic.authentication.objects.ServerKeySet;
+import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
 import com.craftmend.openaudiomc.generic.events.events.StateChangeEvent;
 import com.craftmend.openaudiomc.generic.networking.DefaultNetworkingService;
 import com.craftmend.openaudiomc.generic.oac.OpenaudioAccountService;
@@ -37,6 +38,8 @@ import okhttp3.WebSocket;
 import java.io.IOException;
 import java.net.ProxySelector;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.UUID;
 
 public class SocketConnection {
@@ -52,6 +55,9 @@ public class SocketConnection {
     private RelayLoginResponse previousLogin;
     private ServerKeySet keySet;
     private SystemDriver systemDriver = new SystemDriver(this);
+    private final CompactPacketCodec compactCodec = new CompactPacketCodec();
+    @Getter private volatile boolean compactPackets = false;
+    @Getter private volatile boolean batchedPackets = false;
 
     private final SocketDriver[] drivers = new SocketDriver[]{
             new NotificationDriver(),
@@ -82,6 +88,9 @@ public class SocketConnection {
         if (!registeredLogout) {
             relayLoginRequest = new RestRequest(RelayLoginResponse.class, Endpoint.RELAY_LOGIN);
             relayLoginRequest.setQuery("oa-version", OpenAudioMc.BUILD.getBuildNumber() + "");
+            relayLoginRequest.setQuery("wire-formats", "json," + CompactPacketCodec.WIRE_FORMAT);
+            relayLoginRequest.setQuery("batching", "true");
+            relayLoginRequest.setQuery("location-deltas", "true");
             relayLogoutRequest = new RestRequest(NoResponse.class, Endpoint.RELAY_LOGOUT);
 
             EventApi.getInstance().registerHandler(StateChangeEvent.class, event -> {
@@ -142,6 +151,12 @@ public class SocketConnection {
 
             RelayLoginResponse loginResponse = relayLoginRequest.getResponse();
             previousLogin = loginResponse;
+            compactPackets = loginResponse.supportsCompactPackets();
+            batchedPackets = loginResponse.supportsBatchedPackets();
+            if (compactPackets) {
+                OpenAudioLogger.info("Relay supports compact packets, using " + CompactPacketCodec.WIRE_FORMAT + " for client packets");
+            }
+            compactCodec.setLocationDeltas(compactPackets && loginResponse.supportsLocationDeltas());
             OpenAudioMc.getService(UploadIndexService.class).setContent(loginResponse.getFiles());
         }
 
@@ -151,6 +166,11 @@ public class SocketConnection {
             return;
         }
 
+        // a new socket doesn't know which peer locations were sent through the old one
+        for (ClientConnection client : parent.getClients()) {
+            client.getRtcSessionManager().getLocationStream().reset();
+        }
+
         try {
             String endpoint = previousLogin.getRelayEndpoint();
             endpoint = endpoint.replace("https", "http");
@@ -210,8 +230,66 @@ public class SocketConnection {
         // only send the packet if the client is online, valid and the plugin is connected
         if (client.isConnected() && OpenAudioMc.getService(StateService.class).getCurrentState().isConnected()) {
             packet.setClient(client.getOwner().getUniqueId());
+
+            if (compactPackets) {
+                byte[] frame = compactCodec.encode(packet);
+                if (frame != null) {
+                    socket.emit("data-compact", (Object) frame);
+                    return;
+                }
+            }
+
+            // the relay doesn't speak the compact format, or this packet isn't part of it
             socket.emit("data", OpenAudioMc.getGson().toJson(packet));
         }
     }
 
+    /**
+     * Send multiple packets for the same client as a single frame. Only used when the relay announced
+     * that it can unpack batches, see {@link #isBatchedPackets()}
+     *
+     * @param client  the target
+     * @param packets packets in the order the client should handle them
+     */
+    public void sendBatch(Authenticatable client, List<AbstractPacket> packets) {
+        if (packets.size() == 1) {
+            send(client, packets.get(0));
+            return;
+        }
+
+        if (!client.isConnected() || !OpenAudioMc.getService(StateService.class).getCurrentState().isConnected()) return;
+
+        UUID owner = client.getOwner().getUniqueId();
+        for (AbstractPacket packet : packets) packet.setClient(owner);
+
+        if (compactPackets) {
+            byte[] batch = encodeCompactBatch(packets);
+            if (batch != null) {
+                socket.emit("data-compact-batch", (Object) batch);
+                return;
+            }
+        }
+
+        socket.emit("data-batch", OpenAudioMc.getGson().toJson(packets));
+    }
+
+    private byte[] encodeCompactBatch(List<AbstractPacket> packets) {
+        // int frame count, followed by every frame prefixed with its length
+        byte[][] frames = new byte[packets.size()][];
+        int size = 4;
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = compactCodec.encode(packets.get(i));
+            if (frames[i] == null) return null;
+            size += 4 + frames[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(frames.length);
+        for (byte[] frame : frames) {
+            buffer.putInt(frame.length);
+            buffer.put(frame);
+        }
+        return buffer.array();
+    }
+
 }
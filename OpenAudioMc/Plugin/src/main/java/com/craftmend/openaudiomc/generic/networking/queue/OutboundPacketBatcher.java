@@ -0,0 +1,100 @@
+package com.craftmend.openaudiomc.generic.networking.queue;
+
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerPositionUpdatePayload;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects outgoing packets per client during a tick, and hands them off as one batch when flushed.
+ * Packets that only describe the latest state of something (like the player location, or the position of a speaker)
+ * replace older versions of themselves that are still pending, so we only send what the client actually needs.
+ * <br>
+ * Pending packets keep their order, except for superseded ones, which move to the position of their latest version.
+ */
+public class OutboundPacketBatcher {
+
+    private final Map<UUID, PendingBatch> pending = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedPackets = new AtomicLong();
+
+    public void add(Authenticatable client, AbstractPacket packet) {
+        PendingBatch batch = pending.computeIfAbsent(client.getOwner().getUniqueId(), uuid -> new PendingBatch(client));
+        synchronized (batch) {
+            Object key = coalesceKey(packet);
+            if (key == null) {
+                batch.packets.put(new Object(), packet);
+            } else if (batch.packets.remove(key) != null) {
+                batch.packets.put(key, packet);
+                coalescedPackets.incrementAndGet();
+            } else {
+                batch.packets.put(key, packet);
+            }
+        }
+    }
+
+    /**
+     * Flush the pending packets of a single client, used before sending something that can't wait for the next tick
+     */
+    public void flush(UUID client, BiConsumer<Authenticatable, List<AbstractPacket>> sender) {
+        PendingBatch batch = pending.get(client);
+        if (batch != null) drain(batch, sender);
+    }
+
+    public void flushAll(BiConsumer<Authenticatable, List<AbstractPacket>> sender) {
+        for (PendingBatch batch : pending.values()) {
+            drain(batch, sender);
+        }
+    }
+
+    /**
+     * Drop everything that's pending for a client that's going away
+     */
+    public void discard(UUID client) {
+        pending.remove(client);
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+
+    public long getCoalescedPackets() {
+        return coalescedPackets.get();
+    }
+
+    private void drain(PendingBatch batch, BiConsumer<Authenticatable, List<AbstractPacket>> sender) {
+        // sending while holding the lock keeps batches for the same client in order, emitting only queues the frame
+        synchronized (batch) {
+            if (batch.packets.isEmpty()) return;
+            List<AbstractPacket> packets = new ArrayList<>(batch.packets.values());
+            batch.packets.clear();
+            sender.accept(batch.client, packets);
+        }
+    }
+
+    private static Object coalesceKey(AbstractPacket packet) {
+        if (packet.getPacketChannel() == PacketChannel.CLIENT_OUT_PLAYER_LOCATION) {
+            return PacketChannel.CLIENT_OUT_PLAYER_LOCATION;
+        }
+
+        if (packet.getPacketChannel() == PacketChannel.CLIENT_OUT_SPEAKER_POSITION && packet.getData() instanceof ClientSpeakerPositionUpdatePayload) {
+            return "speaker:" + ((ClientSpeakerPositionUpdatePayload) packet.getData()).getSpeakerId();
+        }
+
+        return null;
+    }
+
+    private static class PendingBatch {
+        private final Authenticatable client;
+        private final LinkedHashMap<Object, AbstractPacket> packets = new LinkedHashMap<>();
+
+        private PendingBatch(Authenticatable client) {
+            this.client = client;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.craftmend.openaudiomc.generic.node.packets;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.io.CompactPacketCodec;
+import com.craftmend.openaudiomc.generic.proxy.messages.PacketWriter;
+import com.craftmend.openaudiomc.generic.proxy.messages.StandardPacket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A part of a batch of forwarded client packets. A batch is a binary frame of length-prefixed packets,
+ * which gets split over multiple parts if it's larger than a single plugin message can be.
+ * The proxy glues the parts back together (they arrive in order over the same player connection)
+ * and reads the frame with {@link #decodeFrame(byte[])}.
+ * <br>
+ * Packets are written in the compact format of {@link CompactPacketCodec} when they fit in it (without location
+ * deltas, since those depend on the relay connection of the proxy), and as json otherwise.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForwardSocketBatchPacket extends StandardPacket {
+
+    // plugin messages are capped at 32766 bytes, leave some room for the header
+    public static final int MAX_PART_SIZE = 32000;
+
+    private static final byte ENTRY_JSON = 0;
+    private static final byte ENTRY_COMPACT = 1;
+    private static final CompactPacketCodec CODEC = new CompactPacketCodec();
+
+    private int batchId;
+    private int part;
+    private int parts;
+    private byte[] data;
+
+    public void handle(DataInputStream dataInputStream) throws IOException {
+        this.batchId = dataInputStream.readInt();
+        this.part = dataInputStream.readUnsignedShort();
+        this.parts = dataInputStream.readUnsignedShort();
+        this.data = new byte[dataInputStream.readInt()];
+        dataInputStream.readFully(this.data);
+    }
+
+    public PacketWriter write() throws IOException {
+        PacketWriter packetWriter = new PacketWriter(this);
+        packetWriter.writeInt(batchId);
+        packetWriter.writeShort(part);
+        packetWriter.writeShort(parts);
+        packetWriter.writeInt(data.length);
+        packetWriter.write(data);
+        return packetWriter;
+    }
+
+    /**
+     * Encode packets into a frame, and split it into parts that each fit in a plugin message
+     */
+    public static List<ForwardSocketBatchPacket> encode(int batchId, List<AbstractPacket> packets) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(packets.size());
+        for (AbstractPacket packet : packets) {
+            byte[] entry = CODEC.encode(packet);
+            if (entry != null) {
+                out.writeByte(ENTRY_COMPACT);
+            } else {
+                out.writeByte(ENTRY_JSON);
+                entry = OpenAudioMc.getGson().toJson(packet).getBytes(StandardCharsets.UTF_8);
+            }
+            out.writeInt(entry.length);
+            out.write(entry);
+        }
+        out.flush();
+
+        byte[] frame = buffer.toByteArray();
+        int parts = Math.max(1, (frame.length + MAX_PART_SIZE - 1) / MAX_PART_SIZE);
+        List<ForwardSocketBatchPacket> result = new ArrayList<>(parts);
+        for (int i = 0; i < parts; i++) {
+            int from = i * MAX_PART_SIZE;
+            int to = Math.min(frame.length, from + MAX_PART_SIZE);
+            byte[] slice = new byte[to - from];
+            System.arraycopy(frame, from, slice, 0, slice.length);
+            result.add(new ForwardSocketBatchPacket(batchId, i, parts, slice));
+        }
+        return result;
+    }
+
+    public static List<AbstractPacket> decodeFrame(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        int count = in.readInt();
+        List<AbstractPacket> packets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte format = in.readByte();
+            byte[] entry = new byte[in.readInt()];
+            in.readFully(entry);
+            if (format == ENTRY_COMPACT) {
+                packets.add(CODEC.decode(entry));
+            } else {
+                packets.add(OpenAudioMc.getGson().fromJson(new String(entry, StandardCharsets.UTF_8), AbstractPacket.class));
+            }
+        }
+        return packets;
+    }
+}
@@ -20,17 +20,29 @@ import com.craftmend.openaudiomc.generic.proxy.models.ProxyNode;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
 import com.craftmend.openaudiomc.api.user.User;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
 import lombok.NoArgsConstructor;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
 @NoArgsConstructor
 public class ProxyHostService extends Service {
 
     private UserHooks userHooks;
+    private final Map<UUID, PartialBatch> partialBatches = new ConcurrentHashMap<>();
 
     @Inject
     public ProxyHostService(UserHooks adapter) {
         // syncronize task updates
         this.userHooks = adapter;
+        // a player that leaves halfway through a batch won't ever send the rest of it
+        OpenAudioMc.getService(NetworkingService.class).subscribeToDisconnections(client -> partialBatches.remove(client.getOwner().getUniqueId()));
         EventApi.getInstance().registerHandler(TimeServiceUpdateEvent.class, event -> {
             for (ProxyNode node : adapter.getNodes()) {
                 node.sendPacket(new ServerUpdateTimePacket(event.getTimeService()));
@@ -67,6 +79,41 @@ public class ProxyHostService extends Service {
         }, 20 * 2);
     }
 
+    /**
+     * Collect the parts of a forwarded batch, parts of the same player arrive in order.
+     *
+     * @return the packets in the batch once all parts are in, null while it's still incomplete
+     */
+    private List<AbstractPacket> reassemble(UUID player, ForwardSocketBatchPacket part) {
+        try {
+            if (part.getParts() == 1) {
+                partialBatches.remove(player);
+                return ForwardSocketBatchPacket.decodeFrame(part.getData());
+            }
+
+            PartialBatch partial = partialBatches.get(player);
+            if (part.getPart() == 0) {
+                partial = new PartialBatch(part.getBatchId());
+                partialBatches.put(player, partial);
+            } else if (partial == null || partial.batchId != part.getBatchId() || partial.nextPart != part.getPart()) {
+                OpenAudioLogger.warn("Dropping forwarded batch " + part.getBatchId() + " for " + player + ", received part " + part.getPart() + " out of order");
+                partialBatches.remove(player);
+                return null;
+            }
+
+            partial.data.write(part.getData());
+            partial.nextPart++;
+            if (partial.nextPart < part.getParts()) return null;
+
+            partialBatches.remove(player);
+            return ForwardSocketBatchPacket.decodeFrame(partial.data.toByteArray());
+        } catch (IOException e) {
+            OpenAudioLogger.error(e, "Failed to read forwarded batch for " + player);
+            partialBatches.remove(player);
+            return null;
+        }
+    }
+
     // received packets from spigot
     public void onPacketReceive(User from, StandardPacket packet) {
         if (packet instanceof ForwardSocketPacket) {
@@ -79,6 +126,18 @@ public class ProxyHostService extends Service {
             return;
         }
 
+        if (packet instanceof ForwardSocketBatchPacket) {
+            List<AbstractPacket> packets = reassemble(from.getUniqueId(), (ForwardSocketBatchPacket) packet);
+            if (packets == null) return;
+
+            ClientConnection clientConnection = OpenAudioMc.getService(NetworkingService.class).getClient(from.getUniqueId());
+            if (clientConnection == null) return;
+            if (!clientConnection.isConnected()) return;
+
+            OpenAudioMc.getService(NetworkingService.class).sendAll(clientConnection, packets);
+            return;
+        }
+
         if (packet instanceof ForceMuteMicrophonePacket) {
             ForceMuteMicrophonePacket p = (ForceMuteMicrophonePacket) packet;
             OpenAudioMc.getService(NetworkingService.class).getClient(from.getUniqueId()).getRtcSessionManager().preventSpeaking(p.isCanSpeak());
@@ -86,4 +145,14 @@ public class ProxyHostService extends Service {
         }
     }
 
+    private static class PartialBatch {
+        private final int batchId;
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private int nextPart = 0;
+
+        private PartialBatch(int batchId) {
+            this.batchId = batchId;
+        }
+    }
+
 }
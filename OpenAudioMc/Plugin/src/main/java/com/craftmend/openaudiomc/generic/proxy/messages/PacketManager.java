@@ -10,12 +10,15 @@ import com.craftmend.openaudiomc.api.user.User;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Created by iKeirNez on 12/12/13, ported to velocity and modified by fluse1367 on 11/2020.
@@ -24,7 +27,7 @@ public abstract class PacketManager {
 
     private final String channel, forwardChannel;
 
-    private final HashMap<Class<? extends StandardPacket>, List<PacketListener>> packetListeners = new HashMap<>();
+    private final Map<Class<? extends StandardPacket>, List<BoundHandler>> packetListeners = new ConcurrentHashMap<>();
     private final List<StandardPacket> sendQueue = new ArrayList<>();
 
     public PacketManager(String channel){
@@ -92,21 +95,13 @@ public abstract class PacketManager {
      */
     public void registerListener(final PacketListener packetListener){
         for (Method method : packetListener.getClass().getMethods()){
+            if (!method.isAnnotationPresent(ProxyPacketHandler.class)) continue;
             Class<?>[] parameters = method.getParameterTypes();
 
             if (parameters.length == 2 && StandardPacket.class.isAssignableFrom(parameters[1])){
                 Class<? extends StandardPacket> parameter = (Class<? extends StandardPacket>) parameters[1];
-                if (!packetListeners.containsKey(parameter)){
-                    packetListeners.put(parameter, new ArrayList<PacketListener>(){
-                        {
-                            add(packetListener);
-                        }
-                    });
-                } else {
-                    List<PacketListener> existingList = packetListeners.get(parameter);
-                    existingList.add(packetListener);
-                    packetListeners.put(parameter, existingList);
-                }
+                packetListeners.computeIfAbsent(parameter, k -> new CopyOnWriteArrayList<>())
+                        .add(new BoundHandler(packetListener, method));
             }
         }
     }
@@ -116,15 +111,8 @@ public abstract class PacketManager {
      * @param packetListener The listener to be un-registered
      */
     public void unregisterListener(PacketListener packetListener){
-        Iterator<Class<? extends StandardPacket>> iterator = packetListeners.keySet().iterator();
-        while (iterator.hasNext()){
-            Class<? extends StandardPacket> clazz = iterator.next();
-            List<PacketListener> list = packetListeners.get(clazz);
-
-            if (list.contains(packetListener)){
-                list.remove(packetListener);
-                packetListeners.put(clazz, list);
-            }
+        for (List<BoundHandler> handlers : packetListeners.values()){
+            handlers.removeIf(handler -> handler.listener == packetListener);
         }
     }
 
@@ -163,52 +151,46 @@ public abstract class PacketManager {
     }
 
     private void doPacket(PacketPlayer packetPlayer, DataInputStream dataInputStream){
-        Class<? extends StandardPacket> packetClazz;
         String packetName = "";
 
         try {
-            packetName = dataInputStream.readUTF();
-            Class<?> clazz = Class.forName(packetName);
+            // packets either start with a registry id (after the marker), or with their class name
+            StandardPacket packet;
+            dataInputStream.mark(4);
+            if (dataInputStream.readUnsignedShort() == StandardPacketRegistry.ID_MARKER) {
+                int id = dataInputStream.readUnsignedShort();
+                packetName = "#" + id;
+                packet = StandardPacketRegistry.create(id);
+            } else {
+                dataInputStream.reset();
+                packetName = dataInputStream.readUTF();
+                packet = StandardPacketRegistry.create(packetName);
+            }
 
-            if (StandardPacket.class.isAssignableFrom(clazz)){
-                packetClazz = (Class<? extends StandardPacket>) clazz;
+            if (packet == null) return; // silently ignore packets we don't know about
 
-                StandardPacket packet = packetClazz.newInstance();
-                packet.sender = packetPlayer;
-                packet.handle(dataInputStream);
+            packet.sender = packetPlayer;
+            packet.handle(dataInputStream);
 
-                User user = OpenAudioMc.resolveDependency(UserHooks.class).byUuid(packetPlayer.getUuid());
+            User user = OpenAudioMc.resolveDependency(UserHooks.class).byUuid(packetPlayer.getUuid());
 
-                OpenAudioMc.getService(ProxyHostService.class).onPacketReceive(
-                        user,
-                        packet
-                );
+            OpenAudioMc.getService(ProxyHostService.class).onPacketReceive(
+                    user,
+                    packet
+            );
 
-                dispatchReceivedPacket(packetClazz, user, packet);
-            }
+            dispatchReceivedPacket(packet.getClass(), user, packet);
         } catch (ClassNotFoundException ignored){ // silently ignore packets we don't know about
         } catch (Throwable e){
             OpenAudioLogger.error(e, "Error whilst receiving packet " + packetName);
         }
     }
 
-    public void dispatchReceivedPacket(Class<? extends StandardPacket> packetClazz, User user, StandardPacket packet) throws IllegalAccessException {
-        List<PacketListener> listeners = packetListeners.get(packetClazz);
-        if (listeners != null){
-            for (PacketListener packetListener : listeners){
-                for (Method method : packetListener.getClass().getMethods()){
-                    if (method.isAnnotationPresent(ProxyPacketHandler.class)){
-                        Class<?>[] parameters = method.getParameterTypes();
-
-                        if (parameters.length == 2 && parameters[1].equals(packetClazz)){
-                            try {
-                                method.invoke(packetListener, user, packet);
-                            } catch (InvocationTargetException e) {
-                                OpenAudioLogger.error(e, "Error whilst passing packet to listener " + packetListener.getClass() + "#" + method.getName());
-                            }
-                        }
-                    }
-                }
+    public void dispatchReceivedPacket(Class<? extends StandardPacket> packetClazz, User user, StandardPacket packet) {
+        List<BoundHandler> handlers = packetListeners.get(packetClazz);
+        if (handlers != null){
+            for (BoundHandler handler : handlers){
+                handler.invoke(user, packet);
             }
         }
     }
@@ -288,6 +270,36 @@ public abstract class PacketManager {
         }
     }
 
+    /**
+     * A {@link ProxyPacketHandler} method, bound to its listener once when it registers
+     */
+    private static class BoundHandler {
+        private final PacketListener listener;
+        private final String name;
+        private final MethodHandle handle;
+
+        private BoundHandler(PacketListener listener, Method method) {
+            this.listener = listener;
+            this.name = listener.getClass() + "#" + method.getName();
+            try {
+                method.setAccessible(true);
+                this.handle = MethodHandles.lookup().unreflect(method)
+                        .bindTo(listener)
+                        .asType(MethodType.methodType(void.class, User.class, StandardPacket.class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Can't access packet handler " + name, e);
+            }
+        }
+
+        private void invoke(User user, StandardPacket packet) {
+            try {
+                handle.invokeExact(user, packet);
+            } catch (Throwable e) {
+                OpenAudioLogger.error(e, "Error whilst passing packet to listener " + name);
+            }
+        }
+    }
+
     protected abstract void sendPluginMessage(PacketPlayer packetPlayer, String channel, byte[] bytes);
     protected abstract int getPlayerCount();
     protected abstract PacketPlayer getRandomPlayer();
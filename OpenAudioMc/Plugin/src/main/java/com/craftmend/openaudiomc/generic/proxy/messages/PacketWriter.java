@@ -25,7 +25,13 @@ public class PacketWriter {
 
         if (!(packet instanceof RawPacket)){
             try {
-                dataOutputStream.writeUTF(packet.getClass().getName());
+                short id = StandardPacketRegistry.getId(packet.getClass());
+                if (id != StandardPacketRegistry.UNKNOWN) {
+                    dataOutputStream.writeShort(StandardPacketRegistry.ID_MARKER);
+                    dataOutputStream.writeShort(id);
+                } else {
+                    dataOutputStream.writeUTF(packet.getClass().getName());
+                }
             } catch (IOException e) {
                 OpenAudioLogger.error(e, "Failed to write packet class name to packet");
             }
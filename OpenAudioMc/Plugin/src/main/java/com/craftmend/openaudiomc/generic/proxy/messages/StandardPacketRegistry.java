@@ -0,0 +1,110 @@
+package com.craftmend.openaudiomc.generic.proxy.messages;
+
+import com.craftmend.openaudiomc.generic.node.packets.*;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Assigns a stable numeric id to every packet we send between the proxy and its servers, so messages
+ * don't have to carry (and look up) the full class name of their packet.
+ * Ids are written after {@link #ID_MARKER}, which can never be the length of a class name, so receivers
+ * can still tell them apart from packets that are written with their class name.
+ */
+public class StandardPacketRegistry {
+
+    /**
+     * Written in place of the utf length of a class name. A class name is never 65535 bytes long.
+     */
+    public static final int ID_MARKER = 0xFFFF;
+    public static final short UNKNOWN = -1;
+
+    private static final Class<?>[] TYPES = new Class<?>[]{
+            // APPEND ONLY, the index is the id on the wire
+            AnnouncePlatformPacket.class,
+            ClientConnectedPacket.class,
+            ClientDisconnectedPacket.class,
+            ClientRunAudioPacket.class,
+            ClientSyncHueStatePacket.class,
+            ClientUpdateStatePacket.class,
+            CommandProxyPacket.class,
+            ForceMuteMicrophonePacket.class,
+            ForwardChannelUserInteractionPacket.class,
+            ForwardSocketPacket.class,
+            ServerUpdateTimePacket.class,
+            ForwardSocketBatchPacket.class,
+    };
+
+    @SuppressWarnings("unchecked")
+    private static final Supplier<StandardPacket>[] FACTORIES = new Supplier[]{
+            AnnouncePlatformPacket::new,
+            ClientConnectedPacket::new,
+            ClientDisconnectedPacket::new,
+            ClientRunAudioPacket::new,
+            ClientSyncHueStatePacket::new,
+            ClientUpdateStatePacket::new,
+            CommandProxyPacket::new,
+            ForceMuteMicrophonePacket::new,
+            ForwardChannelUserInteractionPacket::new,
+            ForwardSocketPacket::new,
+            ServerUpdateTimePacket::new,
+            ForwardSocketBatchPacket::new,
+    };
+
+    private static final Map<Class<?>, Short> IDS = new HashMap<>();
+    // packets from modules or older versions still come in by class name
+    private static final Map<String, Supplier<StandardPacket>> NAMED_FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        for (short i = 0; i < TYPES.length; i++) {
+            IDS.put(TYPES[i], i);
+            NAMED_FACTORIES.put(TYPES[i].getName(), FACTORIES[i]);
+        }
+    }
+
+    public static short getId(Class<? extends StandardPacket> type) {
+        Short id = IDS.get(type);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * @return a new, empty packet for this id, or null if the id is unknown
+     */
+    public static StandardPacket create(int id) {
+        if (id < 0 || id >= FACTORIES.length) return null;
+        return FACTORIES[id].get();
+    }
+
+    /**
+     * @return a new, empty packet for this class name, or null if it isn't a StandardPacket
+     * @throws ClassNotFoundException if the class doesn't exist
+     */
+    public static StandardPacket create(String className) throws ClassNotFoundException {
+        Supplier<StandardPacket> factory = NAMED_FACTORIES.get(className);
+        if (factory == null) {
+            Class<?> clazz = Class.forName(className);
+            if (!StandardPacket.class.isAssignableFrom(clazz)) return null;
+
+            try {
+                Constructor<?> constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                factory = () -> {
+                    try {
+                        return (StandardPacket) constructor.newInstance();
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException("Failed to create packet " + className, e);
+                    }
+                };
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Packet " + className + " has no empty constructor", e);
+            }
+
+            NAMED_FACTORIES.put(className, factory);
+        }
+        return factory.get();
+    }
+
+}
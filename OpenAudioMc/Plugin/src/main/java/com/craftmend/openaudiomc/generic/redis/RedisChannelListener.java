@@ -1,5 +1,6 @@
 package com.craftmend.openaudiomc.generic.redis;
 
+import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.redis.packets.channels.ChannelKey;
 import com.craftmend.openaudiomc.generic.redis.packets.interfaces.OARedisPacket;
@@ -30,6 +31,15 @@ public class RedisChannelListener extends RedisPubSubAdapter<String, String> {
         if (channelNameMap.containsKey(channel)) {
             ChannelKey key = channelNameMap.get(channel);
             OARedisPacket handler = sacreficcialPlayerPackets.get(key);
+
+            // a batch of packets that were published in the same flush
+            if (message.startsWith("[")) {
+                for (String packet : OpenAudioMc.getGson().fromJson(message, String[].class)) {
+                    handler.receive(handler.deSerialize(packet));
+                }
+                return;
+            }
+
             handler.receive(handler.deSerialize(message));
         }
     }
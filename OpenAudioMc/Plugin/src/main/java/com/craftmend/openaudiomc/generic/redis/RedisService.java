@@ -18,16 +18,18 @@ import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
 import com.craftmend.openaudiomc.generic.utils.redis.RedisUtils;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import io.lettuce.core.pubsub.api.async.RedisPubSubAsyncCommands;
 import lombok.Getter;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RedisService extends Service {
 
@@ -43,33 +45,118 @@ public class RedisService extends Service {
     private RedisPubSubAsyncCommands<String, String> asyncPub;
     private boolean enabled = false;
     @Getter private final UUID serviceId = UUID.randomUUID();
-    private final ConcurrentLinkedQueue<WaitingPacket> packetQue = new ConcurrentLinkedQueue<>();
+    // bounded, so a stalled redis connection can't eat all our memory. The oldest packets get dropped first
+    private static final int MAX_QUEUED_PACKETS = 4096;
+    private final LinkedBlockingQueue<WaitingPacket> packetQue = new LinkedBlockingQueue<>(MAX_QUEUED_PACKETS);
+    // when the flush that's waiting on redis started (System.nanoTime), or 0 if there is none
+    private final AtomicLong flushStartedNanos = new AtomicLong();
+    private static final long PUBLISH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private boolean batchMessages = false;
+    @Getter private final AtomicLong droppedPackets = new AtomicLong();
+    @Getter private final AtomicLong publishedMessages = new AtomicLong();
+    @Getter private volatile long lastPublishLatencyNanos = 0;
 
     private final Runnable messageQueHandler = () -> {
-        // combine all the commands
         if (packetQue.isEmpty()) return;
+
+        long now = System.nanoTime();
+        long running = flushStartedNanos.get();
+        if (running != 0) {
+            // a flush is still waiting on redis, the next tick will pick these up. Unless it never completes,
+            // then we stop waiting for it, so it can't hold back every flush after it
+            if (now - running < PUBLISH_TIMEOUT_NANOS || !flushStartedNanos.compareAndSet(running, 0)) return;
+            OpenAudioLogger.warn("A redis publish didn't complete within " + TimeUnit.NANOSECONDS.toSeconds(PUBLISH_TIMEOUT_NANOS) + " seconds, no longer waiting for it");
+        }
+        if (!flushStartedNanos.compareAndSet(0, now)) return;
+
+        try {
+            List<WaitingPacket> drained = new ArrayList<>(packetQue.size());
+            packetQue.drainTo(drained);
+            if (drained.isEmpty()) {
+                flushStartedNanos.compareAndSet(now, 0);
+                return;
+            }
+            publish(drained, now);
+        } catch (Exception e) {
+            flushStartedNanos.compareAndSet(now, 0);
+            OpenAudioLogger.error(e, "Failed to flush the redis queue");
+        }
+    };
+
+    private void publish(List<WaitingPacket> drained, long start) {
+        // commands are combined into a single bulk packet, everything else is batched per channel
         List<String> commands = new ArrayList<>();
+        Map<ChannelKey, List<String>> messages = new EnumMap<>(ChannelKey.class);
 
-        // try to generify the set
-        for (WaitingPacket packet : packetQue) {
+        for (WaitingPacket packet : drained) {
             if (packet.getPacket() instanceof ExecuteCommandPacket) {
                 String command = ((ExecuteCommandPacket) packet.getPacket()).getCommand();
                 if (!command.toLowerCase().startsWith("oa show") && !command.toLowerCase().startsWith("openaudio show") && !command.toLowerCase().startsWith("openaudiomc show")) {
                     commands.add(command);
                 }
-                packetQue.remove(packet);
+            } else if (packet.getPacket() instanceof ExecuteBulkCommandsPacket) {
+                commands.addAll(((ExecuteBulkCommandsPacket) packet.getPacket()).getCommands());
+            } else {
+                messages.computeIfAbsent(packet.getChannel(), k -> new ArrayList<>()).add(packet.getPacket().serialize());
             }
         }
 
-        // send all other packets
-        for (WaitingPacket packet : packetQue) {
-            asyncPub.publish(packet.getChannel().getRedisChannelName(), packet.getPacket().serialize());
+        if (!commands.isEmpty()) {
+            ExecuteBulkCommandsPacket bulk = new ExecuteBulkCommandsPacket(commands);
+            bulk.setSenderUUID(serviceId);
+            messages.computeIfAbsent(ChannelKey.TRIGGER_BULK_COMMANDS, k -> new ArrayList<>()).add(bulk.serialize());
         }
 
-        // if there are bulk packets waiting, send them
-        if (commands.isEmpty()) return;
-        asyncPub.publish(ChannelKey.TRIGGER_BULK_COMMANDS.getRedisChannelName(), new ExecuteBulkCommandsPacket(commands).serialize());
-    };
+        if (messages.isEmpty()) {
+            flushStartedNanos.compareAndSet(start, 0);
+            return;
+        }
+
+        // write everything in one go, instead of a network flush per publish
+        List<RedisFuture<Long>> futures = new ArrayList<>();
+        redisPubConnection.setAutoFlushCommands(false);
+        try {
+            for (Map.Entry<ChannelKey, List<String>> entry : messages.entrySet()) {
+                String channel = entry.getKey().getRedisChannelName();
+                if (batchMessages) {
+                    futures.add(asyncPub.publish(channel, envelope(entry.getValue())));
+                } else {
+                    for (String message : entry.getValue()) futures.add(asyncPub.publish(channel, message));
+                }
+            }
+            redisPubConnection.flushCommands();
+        } finally {
+            redisPubConnection.setAutoFlushCommands(true);
+        }
+
+        for (List<String> batch : messages.values()) publishedMessages.addAndGet(batch.size());
+        CompletableFuture.allOf(futures.stream().map(CompletionStage::toCompletableFuture).toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> {
+                    lastPublishLatencyNanos = System.nanoTime() - start;
+                    // only if we didn't give up on this flush already
+                    flushStartedNanos.compareAndSet(start, 0);
+                    if (error != null) OpenAudioLogger.warn("Failed to publish redis messages: " + error.getMessage());
+                });
+    }
+
+    /**
+     * A single message goes out as-is, multiple messages for the same channel get wrapped in a json array
+     * of serialized packets, which {@link RedisChannelListener} unpacks again.
+     * Older versions can't read these arrays, so this is only used when redis.batch-messages is enabled,
+     * which should only be done once every server on the same redis is running a version that understands them.
+     */
+    private static String envelope(List<String> batch) {
+        if (batch.size() == 1) return batch.get(0);
+        return OpenAudioMc.getGson().toJson(batch);
+    }
+
+    public int getQueueDepth() {
+        return packetQue.size();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
 
     public RedisService() {
 
@@ -80,6 +167,7 @@ public class RedisService extends Service {
         if (!Arrays.stream(ChannelKey.values()).anyMatch(value -> value.getTargetPlatform() == OpenAudioMc.getInstance().getPlatform())) return;
         if (!Configuration.getBoolean(StorageKey.REDIS_ENABLED)) return;
         enabled = true;
+        batchMessages = Configuration.getBoolean(StorageKey.REDIS_BATCH_MESSAGES);
 
         OpenAudioLogger.info("Enabling redis service..");
 
@@ -136,7 +224,11 @@ public class RedisService extends Service {
     public void sendMessage(ChannelKey key, OARedisPacket packet) {
         if (!enabled) return;
         packet.setSenderUUID(serviceId);
-        packetQue.add(new WaitingPacket(key, packet));
+        WaitingPacket waitingPacket = new WaitingPacket(key, packet);
+        while (!packetQue.offer(waitingPacket)) {
+            // full, make room by dropping the oldest packet
+            if (packetQue.poll() != null) droppedPackets.incrementAndGet();
+        }
     }
 
     public void shutdown() {
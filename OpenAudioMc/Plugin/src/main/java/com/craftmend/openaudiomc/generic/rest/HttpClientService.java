@@ -0,0 +1,113 @@
+package com.craftmend.openaudiomc.generic.rest;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.rest.routes.Endpoint;
+import com.craftmend.openaudiomc.generic.service.Service;
+import lombok.Getter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.craftmend.openaudiomc.generic.networking.certificate.CertificateHelper.ignore;
+
+/**
+ * Owns the http client that every rest request goes through, so they all share one connection pool
+ * (and thus keep-alive connections and TLS sessions) and one dispatcher.
+ * It also keeps track of how every endpoint is doing.
+ */
+public class HttpClientService extends Service {
+
+    @Getter private final OkHttpClient client;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<Endpoint, RouteStats> routeStats = new ConcurrentHashMap<>();
+
+    public HttpClientService() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(8);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .callTimeout(30, TimeUnit.SECONDS);
+
+        if (OpenAudioMc.SERVER_ENVIRONMENT == ServerEnvironment.DEVELOPMENT) {
+            OpenAudioLogger.warn("Running in development mode, disabling SSL verification");
+            builder = ignore(builder);
+        }
+
+        client = builder.build();
+
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "OpenAudioMc-Http-Retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get a client with different timeouts, which still shares the pool and dispatcher of the main client
+     */
+    public OkHttpClient withTimeout(int seconds) {
+        if (seconds <= 0) return client;
+        return client.newBuilder()
+                .connectTimeout(seconds, TimeUnit.SECONDS)
+                .readTimeout(seconds, TimeUnit.SECONDS)
+                .callTimeout(seconds * 2L, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public void schedule(Runnable runnable, long delayMillis) {
+        try {
+            retryScheduler.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down, don't leave anyone waiting
+            runnable.run();
+        }
+    }
+
+    public RouteStats getStats(Endpoint endpoint) {
+        return routeStats.computeIfAbsent(endpoint, e -> new RouteStats());
+    }
+
+    public Map<Endpoint, RouteStats> getRouteStats() {
+        return routeStats;
+    }
+
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @Getter
+    public static class RouteStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder totalLatencyMillis = new LongAdder();
+
+        void record(long latencyMillis, boolean failed) {
+            requests.increment();
+            totalLatencyMillis.add(latencyMillis);
+            if (failed) errors.increment();
+        }
+
+        public long getAverageLatencyMillis() {
+            long count = requests.sum();
+            return count == 0 ? 0 : totalLatencyMillis.sum() / count;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.craftmend.openaudiomc.generic.rest;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
-import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.openaudiomc.generic.rest.response.AbstractRestResponse;
 import com.craftmend.openaudiomc.generic.rest.response.IntermediateResponse;
 import com.craftmend.openaudiomc.generic.rest.response.SectionError;
@@ -10,23 +9,21 @@ import com.craftmend.openaudiomc.generic.rest.response.ShorthandResponse;
 import com.craftmend.openaudiomc.generic.rest.routes.Endpoint;
 import com.craftmend.openaudiomc.generic.rest.routes.Method;
 import lombok.Getter;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
+import okhttp3.*;
 
+import java.io.IOException;
 import java.net.SocketTimeoutException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-
-import static com.craftmend.openaudiomc.generic.networking.certificate.CertificateHelper.ignore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class RestRequest<T extends AbstractRestResponse> {
 
     private SectionError sectionError = SectionError.NONE;
     private Endpoint endpoint;
-    private Map<String, String> queryParameters = new HashMap<>();
+    private Map<String, String> queryParameters = new LinkedHashMap<>();
     private T response;
     private String baseUrl = null;
     private RequestBody postBody = null;
@@ -35,6 +32,10 @@ public class RestRequest<T extends AbstractRestResponse> {
     private boolean parseResponse = true;
     private Class<T> typeClass;
     private String rawResponse = null;
+    private int retries = -1;
+    private HttpClientService httpClientService = null;
+
+    private static final long RETRY_BASE_DELAY_MILLIS = 250;
 
     public RestRequest(Class<T> typeClass, Endpoint endpoint) {
         this.endpoint = endpoint;
@@ -87,25 +88,56 @@ public class RestRequest<T extends AbstractRestResponse> {
         return this;
     }
 
+    /**
+     * Retry failed requests (network errors and 502/503/504 responses) this many times.
+     * GET requests retry twice by default, other requests don't, since they might not be safe to repeat.
+     * Retries share the call timeout of the first attempt, see {@link #run()}.
+     */
+    public RestRequest<T> setRetries(int retries) {
+        this.retries = retries;
+        return this;
+    }
+
+    // only needed outside of a running plugin, like in tests
+    RestRequest<T> setHttpClientService(HttpClientService httpClientService) {
+        this.httpClientService = httpClientService;
+        return this;
+    }
+
+    /**
+     * Run the request on the calling thread.
+     * This blocks for at most one call timeout (30 seconds, or twice the custom timeout), retries and their backoff
+     * included, since a retry is only started when there's time left for it.
+     */
     public RestRequest<T> run() {
-        HttpRes res = this.preformRequest();
+        handleResponse(preformRequest().join());
+        return this;
+    }
+
+    public CompletableFuture<ShorthandResponse<T>> runAsync() {
+        return preformRequest().thenApply(res -> {
+            handleResponse(res);
+            return new ShorthandResponse<T>(this.response, this.sectionError);
+        });
+    }
 
+    private void handleResponse(HttpRes res) {
         // catch timeout
         if (res.code == 408) {
             sectionError = SectionError.TIMEOUT;
-            return this;
+            return;
         }
 
-        // is it a 500?
-        if (res.code == 500) {
+        // is it a 500? (502, 503 and 504 end up here when we ran out of retries)
+        if (res.code >= 500) {
             sectionError = SectionError.SERVER_ERROR;
-            return this;
+            return;
         }
 
         // is it a 404?
         if (res.code == 404) {
             sectionError = SectionError.NOT_FOUND;
-            return this;
+            return;
         }
 
         // ok, now parse it
@@ -115,37 +147,19 @@ public class RestRequest<T extends AbstractRestResponse> {
         // copy over the error and response
         sectionError = intermediateResponse.getError();
         response = intermediateResponse.getResponse(typeClass);
-        return this;
-    }
-
-    public CompletableFuture<ShorthandResponse<T>> runAsync() {
-        CompletableFuture<ShorthandResponse<T>> future = new CompletableFuture<>();
-        OpenAudioMc.resolveDependency(TaskService.class).runAsync(() -> {
-            try {
-                this.run();
-                future.complete(new ShorthandResponse<T>(this.response, this.sectionError));
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
-        });
-        return future;
     }
 
     public String buildURL() {
-        String url = endpoint.getURL(this.baseUrl); // uses the default baseurl if null
+        HttpUrl.Builder url = HttpUrl.get(endpoint.getURL(this.baseUrl)).newBuilder(); // uses the default baseurl if null
 
-        // add query params
-        if (queryParameters.size() > 0) {
-            url = url + "?";
-            for (Map.Entry<String, String> entry : queryParameters.entrySet()) {
-                url = url + entry.getKey() + "=" + entry.getValue() + "&";
-            }
-            url = url.substring(0, url.length() - 1);
+        // add query params, these get encoded for us
+        for (Map.Entry<String, String> entry : queryParameters.entrySet()) {
+            url.addQueryParameter(entry.getKey(), entry.getValue());
         }
-        return url;
+        return url.build().toString();
     }
 
-    private HttpRes preformRequest() {
+    private CompletableFuture<HttpRes> preformRequest() {
         // reset state
         sectionError = SectionError.NONE;
         response = null;
@@ -162,28 +176,63 @@ public class RestRequest<T extends AbstractRestResponse> {
             requestBuilder = requestBuilder.get();
         }
 
-        OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
-        OkHttpClient client = null;
+        HttpClientService httpClientService = this.httpClientService != null ? this.httpClientService : OpenAudioMc.getService(HttpClientService.class);
+        OkHttpClient client = httpClientService.withTimeout(timeout);
+        Request request = requestBuilder.build();
+        int maxRetries = retries != -1 ? retries : (method == Method.GET ? 2 : 0);
+
+        CompletableFuture<HttpRes> future = new CompletableFuture<>();
+        long start = System.currentTimeMillis();
+        long deadline = client.callTimeoutMillis() == 0 ? Long.MAX_VALUE : start + client.callTimeoutMillis();
+        future.whenComplete((res, error) -> httpClientService.getStats(endpoint).record(
+                System.currentTimeMillis() - start,
+                error != null || res.code == 408 || res.code >= 500
+        ));
+        attempt(httpClientService, client, request, 0, maxRetries, deadline, future);
+        return future;
+    }
 
-        if (timeout != -1) {
-            clientBuilder.readTimeout(timeout, java.util.concurrent.TimeUnit.SECONDS);
-            clientBuilder.connectTimeout(timeout, java.util.concurrent.TimeUnit.SECONDS);
-        }
+    private void attempt(HttpClientService httpClientService, OkHttpClient client, Request request, int attempt, int maxRetries, long deadline, CompletableFuture<HttpRes> future) {
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (attempt < maxRetries && retry()) return;
+                if (!(e instanceof SocketTimeoutException)) {
+                    OpenAudioLogger.warn("Request to " + endpoint + " failed: " + e.getClass().getSimpleName() + " (" + e.getMessage() + ")");
+                }
+                future.complete(new HttpRes(408, "Request timed out"));
+            }
 
-        if (OpenAudioMc.SERVER_ENVIRONMENT == ServerEnvironment.DEVELOPMENT) {
-            OpenAudioLogger.warn("Running in development mode, disabling SSL verification");
-            clientBuilder = ignore(clientBuilder);
-        }
-        client = clientBuilder.build();
-
-        try {
-            okhttp3.Response response = client.newCall(requestBuilder.build()).execute();
-            return new HttpRes(response.code(), response.body().string());
-        } catch (Exception e) {
-            if (!(e instanceof SocketTimeoutException))
-                e.printStackTrace();
-            return new HttpRes(408, "Request timed out");
-        }
+            @Override
+            public void onResponse(Call call, okhttp3.Response response) {
+                try (okhttp3.Response res = response) {
+                    int code = res.code();
+                    if ((code == 502 || code == 503 || code == 504) && attempt < maxRetries && retry()) return;
+                    future.complete(new HttpRes(code, res.body() == null ? "" : res.body().string()));
+                } catch (Exception e) {
+                    future.complete(new HttpRes(408, "Request timed out"));
+                }
+            }
+
+            private boolean retry() {
+                long delay = backoffMillis(attempt);
+                long remaining = deadline - System.currentTimeMillis() - delay;
+                // not enough time left to wait and try again, so the caller gets this result instead
+                if (remaining <= 0) return false;
+
+                httpClientService.getStats(endpoint).getRetries().increment();
+                OkHttpClient retryClient = deadline == Long.MAX_VALUE ? client : client.newBuilder()
+                        .callTimeout(remaining, TimeUnit.MILLISECONDS)
+                        .build();
+                httpClientService.schedule(() -> attempt(httpClientService, retryClient, request, attempt + 1, maxRetries, deadline, future), delay);
+                return true;
+            }
+        });
+    }
+
+    static long backoffMillis(int attempt) {
+        // exponential backoff with full jitter, so retries from multiple servers don't line up
+        return ThreadLocalRandom.current().nextLong(RETRY_BASE_DELAY_MILLIS << attempt) + 1;
     }
 
     @Getter
@@ -17,22 +17,39 @@ public class Task<T> {
     private Consumer<T> whenFinished;
     private T result;
     private String stringError = null;
-    private boolean finished = false;
+    private SectionError error = null;
+    private boolean failed = false;
+    private volatile boolean finished = false;
 
     public void finish(T data) {
-        if (finished) return;
-        if (whenFinished != null) whenFinished.accept(data);
-        result = data;
-        finished = true;
+        Consumer<T> handler;
+        synchronized (this) {
+            if (finished) return;
+            result = data;
+            finished = true;
+            handler = whenFinished;
+        }
+        if (handler != null) handler.accept(data);
     }
 
+    // handlers that get set after the task already completed (like when it was served from a cache) still get called
     public Task<T> setWhenFailed(Consumer<SectionError> whenFailed) {
-        this.whenFailed = whenFailed;
+        boolean late;
+        synchronized (this) {
+            this.whenFailed = whenFailed;
+            late = failed;
+        }
+        if (late && whenFailed != null) whenFailed.accept(error);
         return this;
     }
 
     public Task<T> setWhenFinished(Consumer<T> whenFinished) {
-        this.whenFinished = whenFinished;
+        boolean late;
+        synchronized (this) {
+            this.whenFinished = whenFinished;
+            late = finished && !failed;
+        }
+        if (late && whenFinished != null) whenFinished.accept(result);
         return this;
     }
 
@@ -46,9 +63,15 @@ public class Task<T> {
     }
 
     public void fail(SectionError error) {
-        if (finished) return;
-        if (whenFailed != null) whenFailed.accept(error);
-        finished = true;
+        Consumer<SectionError> handler;
+        synchronized (this) {
+            if (finished) return;
+            this.error = error;
+            failed = true;
+            finished = true;
+            handler = whenFailed;
+        }
+        if (handler != null) handler.accept(error);
     }
 
     public T waitUntil(int timeoutSeconds) {
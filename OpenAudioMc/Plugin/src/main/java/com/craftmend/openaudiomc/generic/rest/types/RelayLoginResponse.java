@@ -14,4 +14,22 @@ public class RelayLoginResponse extends AbstractRestResponse {
 
     private String[] files; // files in a ccount
 
+    private Boolean compactPackets; // null for relays that don't know about the compact wire format
+
+    private Boolean batchedPackets; // null for relays that can't unpack batch frames
+
+    private Boolean locationDeltas; // null for relays that can't decode delta encoded peer locations
+
+    public boolean supportsCompactPackets() {
+        return compactPackets != null && compactPackets;
+    }
+
+    public boolean supportsBatchedPackets() {
+        return batchedPackets != null && batchedPackets;
+    }
+
+    public boolean supportsLocationDeltas() {
+        return locationDeltas != null && locationDeltas;
+    }
+
 }
@@ -35,12 +35,16 @@ public class StateService extends Service {
         registerDetail(new VoiceDetail());
         registerDetail(new BuildDetail());
         registerDetail(new ClientCacheDetail());
+        registerDetail(new ClientDataCacheDetail());
+        registerDetail(new RedisDetail());
+        registerDetail(new HttpClientDetail());
 
         if (OpenAudioMc.getInstance().getPlatform() == Platform.SPIGOT) {
             // minecraft specific shit
             registerDetail(new SpigotConnectedClients());
             registerDetail(new SpigotRegionDetail());
             registerDetail(new SpigotSpeakerDetail());
+            registerDetail(new SpigotLocationSamplerDetail());
             registerDetail(new SpigotAliasDetail());
             registerDetail(new SpigotVersionDetail());
             registerDetail(new SpeakerDriverDetail());
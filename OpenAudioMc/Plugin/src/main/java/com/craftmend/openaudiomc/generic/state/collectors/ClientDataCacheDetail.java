@@ -0,0 +1,19 @@
+package com.craftmend.openaudiomc.generic.state.collectors;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.ClientDataService;
+import com.craftmend.openaudiomc.generic.state.interfaces.StateDetail;
+
+public class ClientDataCacheDetail implements StateDetail {
+    @Override
+    public String title() {
+        return "Profile Cache";
+    }
+
+    @Override
+    public String value() {
+        ClientDataService service = OpenAudioMc.getService(ClientDataService.class);
+        return service.getCacheSize() + " cached, " + service.getCacheHits().get() + " hits, "
+                + service.getCacheMisses().get() + " misses (" + service.getDatabaseReads().get() + " reads)";
+    }
+}
@@ -0,0 +1,39 @@
+package com.craftmend.openaudiomc.generic.state.collectors;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.rest.HttpClientService;
+import com.craftmend.openaudiomc.generic.rest.routes.Endpoint;
+import com.craftmend.openaudiomc.generic.state.interfaces.StateDetail;
+
+import java.util.Map;
+
+public class HttpClientDetail implements StateDetail {
+    @Override
+    public String title() {
+        return "Http Requests";
+    }
+
+    @Override
+    public String value() {
+        long requests = 0;
+        long errors = 0;
+        long retries = 0;
+        Endpoint slowest = null;
+        long slowestLatency = -1;
+
+        for (Map.Entry<Endpoint, HttpClientService.RouteStats> entry : OpenAudioMc.getService(HttpClientService.class).getRouteStats().entrySet()) {
+            HttpClientService.RouteStats stats = entry.getValue();
+            requests += stats.getRequests().sum();
+            errors += stats.getErrors().sum();
+            retries += stats.getRetries().sum();
+            if (stats.getAverageLatencyMillis() > slowestLatency) {
+                slowestLatency = stats.getAverageLatencyMillis();
+                slowest = entry.getKey();
+            }
+        }
+
+        String value = requests + " requests, " + errors + " errors, " + retries + " retries";
+        if (slowest != null) value += " (slowest: " + slowest + " at " + slowestLatency + "ms)";
+        return value;
+    }
+}
@@ -0,0 +1,20 @@
+package com.craftmend.openaudiomc.generic.state.collectors;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.redis.RedisService;
+import com.craftmend.openaudiomc.generic.state.interfaces.StateDetail;
+
+public class RedisDetail implements StateDetail {
+    @Override
+    public String title() {
+        return "Redis";
+    }
+
+    @Override
+    public String value() {
+        RedisService redis = OpenAudioMc.getService(RedisService.class);
+        if (!redis.isEnabled()) return "Disabled";
+        return redis.getQueueDepth() + " queued, " + redis.getPublishedMessages().get() + " published (last flush "
+                + (redis.getLastPublishLatencyNanos() / 1000) + "us, dropped " + redis.getDroppedPackets().get() + ")";
+    }
+}
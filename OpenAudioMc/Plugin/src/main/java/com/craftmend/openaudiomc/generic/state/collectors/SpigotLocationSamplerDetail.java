@@ -0,0 +1,19 @@
+package com.craftmend.openaudiomc.generic.state.collectors;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.state.interfaces.StateDetail;
+import com.craftmend.openaudiomc.spigot.modules.players.LocationSamplerService;
+
+public class SpigotLocationSamplerDetail implements StateDetail {
+    @Override
+    public String title() {
+        return "Location Sampler";
+    }
+
+    @Override
+    public String value() {
+        LocationSamplerService sampler = OpenAudioMc.getService(LocationSamplerService.class);
+        return sampler.getLastSampledPlayers() + " players in " + (sampler.getLastTickNanos() / 1000) + "us (max "
+                + (sampler.getMaxTickNanos() / 1000) + "us, skipped " + sampler.getSkippedTicks() + ")";
+    }
+}
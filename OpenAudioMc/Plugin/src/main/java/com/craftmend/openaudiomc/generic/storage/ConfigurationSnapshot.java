@@ -0,0 +1,71 @@
+package com.craftmend.openaudiomc.generic.storage;
+
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageLocation;
+import com.craftmend.openaudiomc.generic.storage.interfaces.Configuration;
+
+/**
+ * An immutable copy of every boolean and int setting in the config file, indexed by StorageKey ordinal.
+ * Platform configurations resolve keys through yaml path lookups, which adds up in code that runs every tick.
+ * A new snapshot is published on boot and whenever the config gets reloaded, readers just pick up
+ * whatever snapshot is current through {@link StorageKey#getCachedBoolean()} and {@link StorageKey#getCachedInt()}.
+ * <br>
+ * Only CONFIG_FILE keys are captured, values in the data file get written at runtime and are always read live.
+ * Keys that couldn't be resolved as a given type also fall back to a live lookup.
+ */
+public final class ConfigurationSnapshot {
+
+    private static volatile ConfigurationSnapshot current;
+
+    private final boolean[] booleans;
+    private final int[] ints;
+    private final boolean[] hasBoolean;
+    private final boolean[] hasInt;
+
+    private ConfigurationSnapshot(Configuration configuration) {
+        StorageKey[] keys = StorageKey.values();
+        booleans = new boolean[keys.length];
+        ints = new int[keys.length];
+        hasBoolean = new boolean[keys.length];
+        hasInt = new boolean[keys.length];
+
+        for (StorageKey key : keys) {
+            if (key.getStorageLocation() != StorageLocation.CONFIG_FILE) continue;
+            int index = key.ordinal();
+
+            try {
+                booleans[index] = configuration.getBoolean(key);
+                hasBoolean[index] = true;
+            } catch (Exception ignored) {
+                // not a boolean, or not set
+            }
+
+            try {
+                ints[index] = configuration.getInt(key);
+                hasInt[index] = true;
+            } catch (Exception ignored) {
+                // not an int, or not set
+            }
+        }
+    }
+
+    /**
+     * Capture the current state of the configuration and make it visible to all readers
+     */
+    public static void publish(Configuration configuration) {
+        current = new ConfigurationSnapshot(configuration);
+    }
+
+    public static boolean getBoolean(StorageKey key) {
+        ConfigurationSnapshot snapshot = current;
+        if (snapshot == null || !snapshot.hasBoolean[key.ordinal()]) return key.getBoolean();
+        return snapshot.booleans[key.ordinal()];
+    }
+
+    public static int getInt(StorageKey key) {
+        ConfigurationSnapshot snapshot = current;
+        if (snapshot == null || !snapshot.hasInt[key.ordinal()]) return key.getInt();
+        return snapshot.ints[key.ordinal()];
+    }
+
+}
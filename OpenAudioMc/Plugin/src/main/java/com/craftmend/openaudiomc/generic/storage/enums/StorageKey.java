@@ -1,6 +1,7 @@
 package com.craftmend.openaudiomc.generic.storage.enums;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.storage.ConfigurationSnapshot;
 import lombok.Getter;
 
 import java.util.List;
@@ -97,6 +98,7 @@ public enum StorageKey {
     SETTINGS_PRELOAD_REPLENISH_POOL(false, "options.replenish-preload-cache", StorageLocation.CONFIG_FILE),
     SETTINGS_GC_STRATEGY(false, "options.gc-strategy", StorageLocation.CONFIG_FILE),
     SETTINGS_VC_RADIUS(false, "options.voicechat-radius", StorageLocation.CONFIG_FILE),
+    SETTINGS_VC_LOCATION_PRECISION(false, "options.voicechat-location-precision", StorageLocation.CONFIG_FILE),
     SETTINGS_VC_TOGGLE_MIC_SWAP(false, "options.voicechat-toggle-mic-on-swap-and-sneak", StorageLocation.CONFIG_FILE),
     SETTINGS_VC_USE_HOTBAR(false, "options.voicechat-send-messages-in-hotbar", StorageLocation.CONFIG_FILE),
     SETTINGS_VC_AUTOCLAIM(false, "options.voicechat-autoclaim-on-start", StorageLocation.CONFIG_FILE),
@@ -106,6 +108,7 @@ public enum StorageKey {
     SETTINGS_SPEAKER_REDSTONE_TICK_INTERVAL(false, "options.redstone-tick-speakers-interval", StorageLocation.CONFIG_FILE),
     SETTINGS_IGNORE_REGIONS_WHILE_IN_VEHICLE(false, "options.ignore-regions-on-vehicles", StorageLocation.CONFIG_FILE),
     SETTINGS_HYDRATE_REGIONS_ON_BOOT(false, "options.hydrate-regions-on-boot", StorageLocation.CONFIG_FILE),
+    SETTINGS_REGION_LOOKUP_CACHE(false, "options.region-lookup-cache", StorageLocation.CONFIG_FILE),
 
     SETTINGS_TRAINCARTS_MUTE_REGIONS(false, "options.traincarts-mute-regions", StorageLocation.CONFIG_FILE),
     SETTINGS_TRAINCARTS_MUTE_SPEAKERS(false, "options.traincarts-mute-speakers", StorageLocation.CONFIG_FILE),
@@ -151,6 +154,7 @@ public enum StorageKey {
     REDIS_USE_SSL(false, "redis.useSSL", StorageLocation.CONFIG_FILE),
     REDIS_SECTION(false, "redis.section", StorageLocation.CONFIG_FILE),
     REDIS_SENTINEL_MASTER_SET(false, "redis.sentinel-master-set", StorageLocation.CONFIG_FILE),
+    REDIS_BATCH_MESSAGES(false, "redis.batch-messages", StorageLocation.CONFIG_FILE),
 
     CDN_PREFERRED_PORT(false, "cdn.preferred-bridge-port", StorageLocation.CONFIG_FILE),
     CDN_TIMEOUT(false, "cdn.timeout-seconds", StorageLocation.CONFIG_FILE),
@@ -186,6 +190,21 @@ public enum StorageKey {
         return OpenAudioMc.getInstance().getConfiguration().getInt(this);
     }
 
+    /**
+     * Same as {@link #getBoolean()}, but read from the last published {@link ConfigurationSnapshot}.
+     * Meant for hot code paths and settings that only change when the config gets reloaded.
+     */
+    public boolean getCachedBoolean() {
+        return ConfigurationSnapshot.getBoolean(this);
+    }
+
+    /**
+     * Same as {@link #getInt()}, but read from the last published {@link ConfigurationSnapshot}.
+     */
+    public int getCachedInt() {
+        return ConfigurationSnapshot.getInt(this);
+    }
+
     public String getString() {
         return OpenAudioMc.getInstance().getConfiguration().getString(this);
     }
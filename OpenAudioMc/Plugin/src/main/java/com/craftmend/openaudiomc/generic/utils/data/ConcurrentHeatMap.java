@@ -1,7 +1,6 @@
 package com.craftmend.openaudiomc.generic.utils.data;
 
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,29 +8,49 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
+/**
+ * Keeps track of how "hot" keys are, and only keeps the hottest ones around.
+ * Values are kept in an indexed min-heap (lowest score first, oldest first on ties), so bumping a value
+ * only moves it within the heap, and evicting the coldest value when we're over capacity is a pop.
+ * Expired values are dropped lazily when they're read, and by a full sweep that runs at most every
+ * quarter of the max age.
+ */
 public class ConcurrentHeatMap<T, S> {
 
     public static final ContextFactory BYTE_CONTEXT = () -> (byte) 0;
     private final Map<T, Value> data = new ConcurrentHashMap<>();
     private final int maxAgeInSeconds;
+    private final long maxAgeNanos;
+    private final long sweepIntervalNanos;
     private final int maxElements;
     private final ContextFactory contextFactory;
     @Setter private Consumer<T> deleteConsumer = null;
 
+    // guards the heap, and the score/ping of every value in it
+    private final Object heapLock = new Object();
+    private Value[] heap;
+    private int heapSize = 0;
+    private volatile long nextSweep;
+
     public ConcurrentHeatMap(int maxAgeInSeconds, int maxElements, ContextFactory contextFactory) {
         this.maxAgeInSeconds = maxAgeInSeconds;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeInSeconds);
+        this.sweepIntervalNanos = Math.max(TimeUnit.SECONDS.toNanos(1), maxAgeNanos / 4);
         this.maxElements = maxElements;
         this.contextFactory = contextFactory;
+        this.heap = (Value[]) new ConcurrentHeatMap.Value[Math.max(4, Math.min(maxElements + 1, 1024))];
+        this.nextSweep = System.nanoTime() + sweepIntervalNanos;
     }
 
     public void bump(T value) {
-        clean();
-        Value incremental = data.getOrDefault(value, new Value(value, (S) contextFactory.buildContext()));
-        incremental.bump();
-        data.put(value, incremental);
+        get(value).bump();
+        List<T> removals = new ArrayList<>();
+        trimToSize(removals);
+        notifyRemovals(removals);
+        sweepIfDue();
     }
 
     public int size() {
@@ -39,7 +58,11 @@ public class ConcurrentHeatMap<T, S> {
     }
 
     public void delete(T key)  {
-        data.remove(key);
+        Value removed = data.remove(key);
+        if (removed == null) return;
+        synchronized (heapLock) {
+            heapRemove(removed);
+        }
     }
 
     public Collection<Value> getValues() {
@@ -47,7 +70,25 @@ public class ConcurrentHeatMap<T, S> {
     }
 
     public Value get(T value) {
-        return data.computeIfAbsent(value, k -> new Value(value, (S) contextFactory.buildContext()));
+        sweepIfDue();
+        while (true) {
+            Value existing = data.get(value);
+            if (existing != null) {
+                if (!existing.isExpired(System.nanoTime())) return existing;
+
+                // lazily drop it, and start over with a fresh one
+                if (evict(existing)) notifyRemovals(Collections.singletonList(value));
+                continue;
+            }
+
+            Value created = new Value(value, (S) contextFactory.buildContext());
+            synchronized (heapLock) {
+                if (data.putIfAbsent(value, created) == null) {
+                    heapInsert(created);
+                    return created;
+                }
+            }
+        }
     }
 
     public Map<T, Value> getMap() {
@@ -55,54 +96,94 @@ public class ConcurrentHeatMap<T, S> {
     }
 
     public List<Value> getTop(int count) {
-        int i = 0;
-        List<Value> resultSet = new ArrayList<>();
-        for (Value sortedValue : sortedValues()) {
-            if (i >= count) return resultSet;
-            resultSet.add(sortedValue);
-            i++;
+        if (count <= 0 || data.isEmpty()) return new ArrayList<>();
+
+        // keep the best "count" values in a small min-heap, instead of sorting everything
+        long now = System.nanoTime();
+        PriorityQueue<Value> best = new PriorityQueue<>(count + 1, Comparator.comparingInt(Value::getScore));
+        for (Value value : data.values()) {
+            if (value.isExpired(now)) continue;
+            best.add(value);
+            if (best.size() > count) best.poll();
         }
+
+        List<Value> resultSet = new ArrayList<>(best);
+        resultSet.sort(Comparator.comparingInt(Value::getScore).reversed());
         return resultSet;
     }
 
+    /**
+     * Drop everything that expired, and the coldest values if we're still over capacity
+     */
     public void clean() {
-        int elements = 0;
+        nextSweep = System.nanoTime() + sweepIntervalNanos;
+        long now = System.nanoTime();
         List<T> removals = new ArrayList<>();
-        for (Value value : sortedValues()) {
-            if (value.getAge() > maxAgeInSeconds) {
+        for (Value value : data.values()) {
+            if (value.isExpired(now) && evict(value)) {
                 removals.add(value.getValue());
-                continue;
             }
+        }
+        trimToSize(removals);
+        notifyRemovals(removals);
+    }
 
-            elements++;
-            if (elements > maxElements) {
-                removals.add(value.getValue());
+    /**
+     * Scale every score down (but never below 1), without changing when values were last pinged.
+     * Returns true if any score changed.
+     */
+    public boolean decay(double factor) {
+        boolean changed = false;
+        synchronized (heapLock) {
+            for (int i = 0; i < heapSize; i++) {
+                Value value = heap[i];
+                int decayed = Math.max(1, (int) (value.score * factor));
+                if (decayed != value.score) {
+                    value.score = decayed;
+                    changed = true;
+                }
+            }
+
+            // rounding can merge scores and break ties differently, so restore the heap in one pass
+            if (changed) {
+                for (int i = (heapSize >>> 1) - 1; i >= 0; i--) siftDown(i);
             }
         }
+        return changed;
+    }
 
-        for (T removal : removals) {
-            data.remove(removal);
-            if (deleteConsumer != null) {
-                try {
-                    deleteConsumer.accept(removal);
-                } catch (Exception e) {
-                    OpenAudioLogger.error(e , "Failed to delete " + removal + " from heat map");
-                }
+    private void sweepIfDue() {
+        if (System.nanoTime() - nextSweep >= 0) clean();
+    }
+
+    private void trimToSize(List<T> removals) {
+        synchronized (heapLock) {
+            while (heapSize > maxElements) {
+                Value coldest = heap[0];
+                heapRemove(coldest);
+                data.remove(coldest.getValue(), coldest);
+                removals.add(coldest.getValue());
             }
         }
     }
 
-    private List<Value> sortedValues() {
-        if (data.isEmpty()) return new ArrayList<>();
+    private boolean evict(Value value) {
+        synchronized (heapLock) {
+            if (!data.remove(value.getValue(), value)) return false;
+            heapRemove(value);
+            return true;
+        }
+    }
 
-        return new ArrayList<>(data.values())
-                .stream()
-                .sorted(
-                        Comparator
-                                .comparingInt(Value::getScore)
-                                .reversed()
-                )
-                .collect(Collectors.toList());
+    private void notifyRemovals(List<T> removals) {
+        if (deleteConsumer == null) return;
+        for (T removal : removals) {
+            try {
+                deleteConsumer.accept(removal);
+            } catch (Exception e) {
+                OpenAudioLogger.error(e , "Failed to delete " + removal + " from heat map");
+            }
+        }
     }
 
     public interface ContextFactory {
@@ -110,42 +191,146 @@ public class ConcurrentHeatMap<T, S> {
     }
 
     public void forceValue(T value, Instant pingedAt, Integer score) {
-        data.put(value, new Value(
+        Value forced = new Value(
                 (S) contextFactory.buildContext(),
                 value,
                 pingedAt,
                 score
-        ));
+        );
+        synchronized (heapLock) {
+            Value previous = data.put(value, forced);
+            if (previous != null) heapRemove(previous);
+            heapInsert(forced);
+        }
+    }
+
+    // heap operations, only call these while holding the heap lock
+
+    private void heapInsert(Value value) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        heap[heapSize] = value;
+        value.heapIndex = heapSize;
+        heapSize++;
+        siftUp(value.heapIndex);
+    }
+
+    private void heapRemove(Value value) {
+        int index = value.heapIndex;
+        if (index < 0) return;
+        heapSize--;
+        Value last = heap[heapSize];
+        heap[heapSize] = null;
+        value.heapIndex = -1;
+        if (index == heapSize) return;
+
+        heap[index] = last;
+        last.heapIndex = index;
+        siftUp(index);
+        siftDown(last.heapIndex);
+    }
+
+    private void heapUpdate(Value value) {
+        if (value.heapIndex < 0) return;
+        siftUp(value.heapIndex);
+        siftDown(value.heapIndex);
+    }
+
+    private void siftUp(int index) {
+        Value value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!colder(value, heap[parent])) break;
+            heap[index] = heap[parent];
+            heap[index].heapIndex = index;
+            index = parent;
+        }
+        heap[index] = value;
+        value.heapIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Value value = heap[index];
+        int half = heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < heapSize && colder(heap[right], heap[child])) child = right;
+            if (!colder(heap[child], value)) break;
+            heap[index] = heap[child];
+            heap[index].heapIndex = index;
+            index = child;
+        }
+        heap[index] = value;
+        value.heapIndex = index;
+    }
+
+    private static boolean colder(ConcurrentHeatMap<?, ?>.Value a, ConcurrentHeatMap<?, ?>.Value b) {
+        if (a.score != b.score) return a.score < b.score;
+        return a.pingedAtNanos - b.pingedAtNanos < 0;
     }
 
-    @AllArgsConstructor
     public class Value {
         @Setter @Getter private S context;
         @Getter private final T value;
-        @Getter private Instant pingedAt = Instant.now();
-        @Getter private Integer score = 1;
+        private volatile long pingedAtNanos = System.nanoTime();
+        private volatile int score = 1;
+        private int heapIndex = -1;
+
+        public Value(S context, T value, Instant pingedAt, Integer score) {
+            this.context = context;
+            this.value = value;
+            this.pingedAtNanos = System.nanoTime() - Duration.between(pingedAt, Instant.now()).toNanos();
+            this.score = score;
+        }
 
         public Value(T value, S context) {
             this.value = value;
             this.context = context;
         }
 
+        public Integer getScore() {
+            return score;
+        }
+
+        public Instant getPingedAt() {
+            return Instant.now().minusNanos(System.nanoTime() - pingedAtNanos);
+        }
+
         public Value setScore(Integer score) {
-            this.score = score;
-            pingedAt = Instant.now();
-            data.put(value, this);
+            synchronized (heapLock) {
+                this.score = score;
+                pingedAtNanos = System.nanoTime();
+                track();
+            }
             return this;
         }
 
         public Value bump() {
-            score++;
-            pingedAt = Instant.now();
-            data.put(value, this);
+            synchronized (heapLock) {
+                score++;
+                pingedAtNanos = System.nanoTime();
+                track();
+            }
             return this;
         }
 
         public int getAge() {
-            return (int) (Duration.between(pingedAt, Instant.now()).toMillis() / 1000);
+            return (int) TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - pingedAtNanos);
+        }
+
+        private boolean isExpired(long now) {
+            return now - pingedAtNanos > maxAgeNanos;
+        }
+
+        // called with the heap lock held, puts us back in the map if we got evicted in the meantime
+        private void track() {
+            if (heapIndex >= 0) {
+                heapUpdate(this);
+                return;
+            }
+            Value previous = data.put(value, this);
+            if (previous != null && previous != this) heapRemove(previous);
+            heapInsert(this);
         }
     }
 }
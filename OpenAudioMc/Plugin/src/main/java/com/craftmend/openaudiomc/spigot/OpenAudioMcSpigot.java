@@ -38,10 +38,12 @@ import com.craftmend.openaudiomc.spigot.modules.voicechat.filters.FilterService;
 import com.craftmend.openaudiomc.spigot.services.dependency.SpigotDependencyService;
 import com.craftmend.openaudiomc.spigot.services.scheduling.SpigotTaskService;
 import com.craftmend.openaudiomc.spigot.services.server.ServerService;
+import com.craftmend.openaudiomc.spigot.modules.players.LocationSamplerService;
 import com.craftmend.openaudiomc.spigot.modules.players.SpigotPlayerService;
 import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
 import com.craftmend.openaudiomc.spigot.modules.speakers.SpeakerService;
 import com.craftmend.openaudiomc.spigot.services.threading.ExecutorService;
+import com.craftmend.openaudiomc.spigot.services.world.ObstructionService;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -107,6 +109,8 @@ public final class OpenAudioMcSpigot extends JavaPlugin implements OpenAudioInvo
                     ExecutorService.class,
                     ServerService.class,
                     SpigotPlayerService.class,
+                    LocationSamplerService.class,
+                    ObstructionService.class,
                     SpeakerService.class,
                     SpigotCommandService.class,
                     ShowService.class,
@@ -149,6 +153,7 @@ public final class OpenAudioMcSpigot extends JavaPlugin implements OpenAudioInvo
     @Override
     public void onDisable() {
         OpenAudioLogger.info("Shutting down");
+        OpenAudioMc.getService(LocationSamplerService.class).onDisable();
         OpenAudioMc.getService(SpigotPlayerService.class).onDisable();
         OpenAudioMc.getService(PredictiveMediaService.class).onDisable();
         openAudioMc.disable();
@@ -0,0 +1,126 @@
+package com.craftmend.openaudiomc.spigot.modules.players;
+
+import com.craftmend.openaudiomc.generic.environment.MagicValue;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
+import com.craftmend.openaudiomc.generic.service.Inject;
+import com.craftmend.openaudiomc.generic.service.Service;
+import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples the location of every connected player in a single repeating task, instead of every player
+ * having their own scheduled data watcher. Large servers get their players split over a small worker pool,
+ * and the location handlers only run for players that actually moved.
+ */
+@NoArgsConstructor
+public class LocationSamplerService extends Service {
+
+    // don't bother with the worker pool for small player counts, the hand-off costs more than it saves
+    private static final int PARTITION_THRESHOLD = 64;
+
+    @Inject
+    private SpigotPlayerService playerService;
+
+    @Inject
+    private TaskService taskService;
+
+    private java.util.concurrent.ExecutorService workers;
+    private int workerCount;
+    private int taskId = -1;
+    private final AtomicBoolean sampling = new AtomicBoolean(false);
+
+    @Getter private volatile long lastTickNanos = 0;
+    @Getter private volatile long maxTickNanos = 0;
+    @Getter private volatile int lastSampledPlayers = 0;
+    private final AtomicInteger skippedTicks = new AtomicInteger();
+
+    @Override
+    public void onEnable() {
+        workerCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "OpenAudioMc-LocationSampler-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int interval = MagicValue.LOCATION_TRACK_INTERVAL.get(Integer.class);
+        taskId = taskService.scheduleAsyncRepeatingTask(this::tick, interval, interval);
+    }
+
+    @Override
+    public void onDisable() {
+        if (taskId != -1) {
+            taskService.cancelRepeatingTask(taskId);
+            taskId = -1;
+        }
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void tick() {
+        // skip this round if the previous one is still running, instead of piling up on the scheduler
+        if (!sampling.compareAndSet(false, true)) {
+            skippedTicks.incrementAndGet();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            SpigotConnection[] connections = playerService.getClients().toArray(new SpigotConnection[0]);
+
+            if (connections.length < PARTITION_THRESHOLD || workerCount == 1) {
+                sampleRange(connections, 0, connections.length);
+            } else {
+                int partitionSize = (connections.length + workerCount - 1) / workerCount;
+                CountDownLatch latch = new CountDownLatch(workerCount);
+                for (int i = 0; i < workerCount; i++) {
+                    int from = Math.min(connections.length, i * partitionSize);
+                    int to = Math.min(connections.length, from + partitionSize);
+                    workers.execute(() -> {
+                        try {
+                            sampleRange(connections, from, to);
+                        } finally {
+                            latch.countDown();
+                        }
+                    });
+                }
+                if (!latch.await(1, TimeUnit.SECONDS)) {
+                    OpenAudioLogger.warn("Location sampling took longer than a second, some players might be lagging behind");
+                }
+            }
+
+            lastSampledPlayers = connections.length;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastTickNanos = System.nanoTime() - start;
+            if (lastTickNanos > maxTickNanos) maxTickNanos = lastTickNanos;
+            sampling.set(false);
+        }
+    }
+
+    public int getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    private void sampleRange(SpigotConnection[] connections, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                connections[i].sampleLocation();
+            } catch (Exception e) {
+                OpenAudioLogger.error(e, "Failed to sample location for " + connections[i].getBukkitPlayer().getName());
+            }
+        }
+    }
+
+}
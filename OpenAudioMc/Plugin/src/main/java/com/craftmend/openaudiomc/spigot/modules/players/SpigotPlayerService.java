@@ -20,9 +20,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @NoArgsConstructor
 public class SpigotPlayerService extends Service {
@@ -31,7 +31,7 @@ public class SpigotPlayerService extends Service {
     private OpenAudioMcSpigot openAudioMcSpigot;
 
     @Getter
-    private final Map<UUID, SpigotConnection> spigotConnectionMap = new HashMap<>();
+    private final Map<UUID, SpigotConnection> spigotConnectionMap = new ConcurrentHashMap<>();
     @Getter private PlayerConnectionListener playerConnectionListener;
 
     @Override
@@ -40,7 +40,7 @@ public class AudioChunkHandler implements ITickableHandler {
             hasPrefetchedContent = !media.isEmpty();
 
             for (String s : media) {
-                spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(s, StorageKey.SETTINGS_PRELOAD_REPLENISH_POOL.getBoolean()));
+                spigotConnection.getClientConnection().sendPacket(new PacketClientPreFetch(s, StorageKey.SETTINGS_PRELOAD_REPLENISH_POOL.getCachedBoolean()));
             }
         }
     }
@@ -37,7 +37,7 @@ public class RegionHandler implements ITickableHandler {
         if (OpenAudioMcSpigot.getInstance().getRegionModule() != null) {
             //regions are enabled
             List<IRegion> detectedRegions;
-            if (StorageKey.SETTINGS_IGNORE_REGIONS_WHILE_IN_VEHICLE.getBoolean() && player.getVehicle() != null) {
+            if (StorageKey.SETTINGS_IGNORE_REGIONS_WHILE_IN_VEHICLE.getCachedBoolean() && player.getVehicle() != null) {
                 detectedRegions = EMPTY_LIST;
             } else {
                 detectedRegions = OpenAudioMcSpigot.getInstance().getRegionModule()
@@ -17,8 +17,9 @@ import com.craftmend.openaudiomc.api.speakers.SpeakerType;
 import com.craftmend.openaudiomc.spigot.modules.players.interfaces.ITickableHandler;
 import com.craftmend.openaudiomc.spigot.modules.players.objects.SpigotConnection;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
+import com.craftmend.openaudiomc.spigot.services.world.ObstructionService;
 import lombok.AllArgsConstructor;
-import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
 import java.time.Instant;
@@ -34,18 +35,22 @@ public class SpeakerHandler implements ITickableHandler {
     private final SpigotConnection spigotConnection;
     private final Queue<AbstractPacket> packetQue = new ConcurrentLinkedQueue<AbstractPacket>();
     private final SpeakerService speakerService = OpenAudioMc.getService(SpeakerService.class);
+    private final ObstructionService obstructionService = OpenAudioMc.getService(ObstructionService.class);
 
     /**
      * update speakers based on the players location
      */
     @Override
     public void tick() {
-        List<ApplicableSpeaker> applicableSpeakers = new ArrayList<>(speakerService.getCollector().getApplicableSpeakers(player.getLocation(), true));
+        Location location = player.getLocation();
+        List<ApplicableSpeaker> applicableSpeakers = new ArrayList<>(speakerService.getCollector().getApplicableSpeakers(location, true));
         List<ApplicableSpeaker> enteredSpeakers = new ArrayList<>(applicableSpeakers);
         enteredSpeakers.removeIf(speaker -> containsSpeaker(spigotConnection.getSpeakers(), speaker));
         List<ApplicableSpeaker> leftSpeakers = new ArrayList<>(spigotConnection.getSpeakers());
         leftSpeakers.removeIf(speaker -> containsSpeaker(applicableSpeakers, speaker));
 
+        List<ApplicableSpeaker> delayedSpeakers = new ArrayList<>();
+
         enteredSpeakers.forEach(entered -> {
             if (!isPlayingSpeaker(entered)) {
                 int obstructions = 0;
@@ -53,7 +58,12 @@ public class SpeakerHandler implements ITickableHandler {
                 // calculate obstructions?
                 // yea, but only if enabled for this speaker
                 if (ExtraSpeakerOptions.PROCESS_OBSTRUCTIONS.isEnabledFor(entered.getSpeaker())) {
-                    obstructions = speakerService.getRayTracer().obstructionsBetweenLocations(player.getLocation(), entered.getLocation());
+                    obstructions = obstructionService.getObstructions(location, entered);
+                    if (obstructions == ObstructionService.PENDING) {
+                        // not traced yet, hold it back for a moment instead of starting it without walls
+                        delayedSpeakers.add(entered);
+                        return;
+                    }
                 }
 
                 if (!entered.getSpeaker().isRedstonePowered()) {
@@ -92,6 +102,12 @@ public class SpeakerHandler implements ITickableHandler {
             OpenAudioMc.getService(NetworkingService.class).send(spigotConnection.getClientConnection(), new PacketClientRemoveSpeaker(new ClientSpeakerDestroyPayload(clientSpeaker)));
         });
 
+        // delayed speakers aren't playing yet, so they'll be picked up as new ones on the next sample
+        if (!delayedSpeakers.isEmpty()) {
+            applicableSpeakers.removeAll(delayedSpeakers);
+            spigotConnection.forceLocationTick();
+        }
+
         spigotConnection.setCurrentSpeakers(applicableSpeakers);
 
         // update location if the client is listening to something
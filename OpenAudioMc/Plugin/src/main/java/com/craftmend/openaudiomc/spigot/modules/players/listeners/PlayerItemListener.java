@@ -30,7 +30,7 @@ public class PlayerItemListener implements Listener {
 
     @EventHandler
     public void onShort(PlayerSwapHandItemsEvent event) {
-        if (event.getPlayer().isSneaking() && StorageKey.SETTINGS_VC_TOGGLE_MIC_SWAP.getBoolean()) {
+        if (event.getPlayer().isSneaking() && StorageKey.SETTINGS_VC_TOGGLE_MIC_SWAP.getCachedBoolean()) {
 
             if (Math.abs(Duration.between(playerMuteTimeout.getOrDefault(event.getPlayer().getUniqueId(), BOOT), Instant.now()).toMillis() / 1000) < 0.8) {
                 // disable
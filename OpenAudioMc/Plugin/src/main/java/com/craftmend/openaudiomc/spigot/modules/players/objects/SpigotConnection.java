@@ -2,7 +2,6 @@ package com.craftmend.openaudiomc.spigot.modules.players.objects;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.api.media.Media;
-import com.craftmend.openaudiomc.generic.environment.MagicValue;
 import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
 import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateLocation;
@@ -21,7 +20,6 @@ import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeak
 
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.SpeakerSettings;
 import com.craftmend.openaudiomc.spigot.modules.voicechat.VoiceChannelService;
-import com.craftmend.openaudiomc.spigot.services.utils.DataWatcher;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.Bukkit;
@@ -45,13 +43,9 @@ public class SpigotConnection {
     @Setter
     private List<ApplicableSpeaker> currentSpeakers = new ArrayList<>();
 
-    // data watcher that watches for changes in the location, every 2 ticks.
-    @Getter
-    private final DataWatcher<Location> locationDataWatcher = new DataWatcher<>(
-            OpenAudioMcSpigot.getInstance(),
-            false,
-            MagicValue.LOCATION_TRACK_INTERVAL.get(Integer.class)
-    );
+    // last known location, sampled by the LocationSamplerService every LOCATION_TRACK_INTERVAL ticks
+    private Location lastSampledLocation = null;
+    private volatile boolean forceLocationTick = false;
 
     // Speaker and region handles. Region handler can be null if the feature is disabled
     @Getter private final SpeakerHandler speakerHandler;
@@ -79,27 +73,6 @@ public class SpigotConnection {
         this.speakerHandler = new SpeakerHandler(player, this);
         this.audioChunkHandler = new AudioChunkHandler(player, this);
 
-        // code that fires when the location has been changed
-        locationDataWatcher.setTask(updatedLocation -> {
-            // if the client is not connected, then dont do shit, they wont hear it anyway
-            if (!this.clientConnection.isConnected()) return;
-            if (!player.isOnline()) return; // how?.. what?..
-
-            this.audioChunkHandler.tick();
-
-            // tick the regions, if the regions are enabled
-            if (this.regionHandler != null) this.regionHandler.tick();
-
-            // tick the speakers to force them to update
-            this.speakerHandler.tick();
-
-            // update location if wanted
-            tickLocationFollowers();
-        });
-
-        // the feeder, how the data watcher gets its new fed data
-        locationDataWatcher.setFeeder(player::getLocation);
-
         // set handlers
         clientConnection.addOnConnectHandler(() -> {
             audioChunkHandler.reset();
@@ -107,7 +80,7 @@ public class SpigotConnection {
             currentSpeakers.clear();
 
             if (player.isOnline()) {
-                locationDataWatcher.getCallback().accept(player.getLocation());
+                onLocationChange(player.getLocation(), true);
                 Bukkit.getScheduler().runTask(OpenAudioMcSpigot.getInstance(), () -> Bukkit.getServer().getPluginManager().callEvent(new ClientConnectEvent(player, this)));
             }
         });
@@ -123,9 +96,58 @@ public class SpigotConnection {
         });
     }
 
-    private void tickLocationFollowers() {
+    /**
+     * Called by the location sampler, compares the current location with the last sample
+     * and fires the location handlers if the player moved (or if a tick was forced)
+     */
+    public void sampleLocation() {
+        Location location = bukkitPlayer.getLocation();
+        Location previous = lastSampledLocation;
+        lastSampledLocation = location;
+
+        boolean forced = forceLocationTick;
+        forceLocationTick = false;
+
+        if (!forced && (previous == null || previous.equals(location))) return;
+        onLocationChange(location, forced || !isSameBlock(previous, location));
+    }
+
+    /**
+     * Force the location handlers to run on the next sample, even if the player didn't move
+     */
+    public void forceLocationTick() {
+        this.forceLocationTick = true;
+    }
+
+    private void onLocationChange(Location location, boolean movedBlock) {
+        // if the client is not connected, then dont do shit, they wont hear it anyway
+        if (!this.clientConnection.isConnected()) return;
+        if (!bukkitPlayer.isOnline()) return; // how?.. what?..
+
+        // regions, speakers and chunks only care about block positions, so skip them when we only looked around
+        if (movedBlock) {
+            this.audioChunkHandler.tick();
+
+            // tick the regions, if the regions are enabled
+            if (this.regionHandler != null) this.regionHandler.tick();
+
+            // tick the speakers to force them to update
+            this.speakerHandler.tick();
+        }
+
+        // update location if wanted
+        tickLocationFollowers(location);
+    }
+
+    private boolean isSameBlock(Location a, Location b) {
+        return a.getBlockX() == b.getBlockX()
+                && a.getBlockY() == b.getBlockY()
+                && a.getBlockZ() == b.getBlockZ()
+                && a.getWorld() == b.getWorld();
+    }
+
+    private void tickLocationFollowers(Location location) {
         if (!locationFollowers.isEmpty()) {
-            Location location = bukkitPlayer.getLocation();
             ClientPlayerLocationPayload locationPayload = new ClientPlayerLocationPayload(
                     round(location.getX(), 1),
                     round(location.getY(), 1),
@@ -146,8 +168,6 @@ public class SpigotConnection {
      * Called before the Client object is destroyed
      */
     public void onDestroy() {
-        // shutdown the data watcher
-        this.locationDataWatcher.stop();
         this.currentSpeakers.clear();
         this.currentRegions.clear();
         OpenAudioMc.getService(VoiceChannelService.class).handleUserDisconnect(clientConnection);
@@ -0,0 +1,120 @@
+package com.craftmend.openaudiomc.spigot.modules.players.selector;
+
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import com.craftmend.openaudiomc.spigot.modules.show.interfaces.WorldHolderCommandSender;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.command.BlockCommandSender;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed selector (like @a[r=10,region=foo]). These are immutable, so the same instance
+ * gets shared by everything that uses the same selector string.
+ */
+@Getter
+public class CompiledSelector {
+
+    public enum Target {
+        NEAREST,    // @p
+        ALL,        // @a
+        PLAYER,     // a player name
+        INVALID
+    }
+
+    private final String source;
+    private final Target target;
+    private final Map<String, String> arguments;
+    // a fixed position to select from, instead of the location of the sender
+    private final int[] origin;
+    private final boolean usingRegions;
+    private final List<SelectorFilter> filters;
+
+    CompiledSelector(String source, Target target, Map<String, String> arguments, int[] origin, boolean usingRegions, List<SelectorFilter> filters) {
+        this.source = source;
+        this.target = target;
+        this.arguments = Collections.unmodifiableMap(arguments);
+        this.origin = origin;
+        this.usingRegions = usingRegions;
+        this.filters = Collections.unmodifiableList(filters);
+    }
+
+    public List<Player> select(CommandSender sender) {
+        List<Player> players = new ArrayList<>();
+
+        if (target == Target.PLAYER) {
+            Player player = Bukkit.getPlayer(source);
+            if (player != null) players.add(player);
+            return players;
+        }
+
+        if (target == Target.INVALID) {
+            OpenAudioLogger.warn("Invalid player query. Try something like @a, @p, username or other arguments.");
+            sender.sendMessage("Invalid player query. Try something like @a, @p, username or other arguments.");
+            return players;
+        }
+
+        RegionModule regionModule = null;
+        if (usingRegions) {
+            regionModule = OpenAudioMcSpigot.getInstance().getRegionModule();
+            if (regionModule == null) {
+                sender.sendMessage("You dont have worldguard installed, so nobody can be in a region. Selecting nobody.");
+                return players;
+            }
+        }
+
+        SelectorContext context = new SelectorContext(getStandPoint(sender), regionModule);
+        Player nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (!matches(player, context)) continue;
+
+            if (target == Target.NEAREST) {
+                double distance = context.locationOf(player).distanceSquared(context.getStandPoint());
+                if (distance < nearestDistance) {
+                    nearest = player;
+                    nearestDistance = distance;
+                }
+            } else {
+                players.add(player);
+            }
+        }
+
+        if (nearest != null) players.add(nearest);
+        return players;
+    }
+
+    boolean matches(Player player, SelectorContext context) {
+        for (SelectorFilter filter : filters) {
+            if (!filter.test(player, context)) return false;
+        }
+        return true;
+    }
+
+    private Location getStandPoint(CommandSender commandSender) {
+        Location initialLocation = new Location(Bukkit.getWorlds().get(0), 0, 0, 0);
+
+        if (commandSender instanceof Player) {
+            initialLocation = ((Player) commandSender).getLocation();
+        } else if (commandSender instanceof BlockCommandSender) {
+            initialLocation = ((BlockCommandSender) commandSender).getBlock().getLocation();
+        } else if (commandSender instanceof WorldHolderCommandSender) {
+            initialLocation = ((WorldHolderCommandSender) commandSender).getWorld().getSpawnLocation();
+        }
+
+        if (origin != null) {
+            return new Location(initialLocation.getWorld(), origin[0], origin[1], origin[2]);
+        }
+        return initialLocation;
+    }
+
+}
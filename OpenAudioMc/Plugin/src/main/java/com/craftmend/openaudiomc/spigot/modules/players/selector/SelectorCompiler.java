@@ -0,0 +1,134 @@
+package com.craftmend.openaudiomc.spigot.modules.players.selector;
+
+import org.bukkit.Location;
+
+import java.util.*;
+
+/**
+ * Parses selectors into a {@link CompiledSelector} once, shows and commands tend to run the same ones over and over.
+ * Compiled selectors are kept in a small LRU cache.
+ */
+public class SelectorCompiler {
+
+    private static final int MAX_CACHED_SELECTORS = 512;
+
+    private static final Map<String, CompiledSelector> CACHE = new LinkedHashMap<String, CompiledSelector>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledSelector> eldest) {
+            return size() > MAX_CACHED_SELECTORS;
+        }
+    };
+
+    public static CompiledSelector compile(String selector) {
+        synchronized (CACHE) {
+            CompiledSelector cached = CACHE.get(selector);
+            if (cached != null) return cached;
+        }
+
+        CompiledSelector compiled = parse(selector);
+        synchronized (CACHE) {
+            CACHE.put(selector, compiled);
+        }
+        return compiled;
+    }
+
+    public static int getCacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    static CompiledSelector parse(String selector) {
+        CompiledSelector.Target target;
+        if (selector.startsWith("@p")) {
+            target = CompiledSelector.Target.NEAREST;
+        } else if (selector.startsWith("@a")) {
+            target = CompiledSelector.Target.ALL;
+        } else if (selector.length() <= 16) {
+            return new CompiledSelector(selector, CompiledSelector.Target.PLAYER, new HashMap<>(), null, false, new ArrayList<>());
+        } else {
+            return invalid(selector);
+        }
+
+        Map<String, String> arguments = parseArguments(selector);
+        if (arguments == null) return invalid(selector);
+
+        int[] origin = null;
+        if (arguments.containsKey("x") && arguments.containsKey("y") && arguments.containsKey("z")) {
+            Integer x = parseNumber(arguments.get("x"));
+            Integer y = parseNumber(arguments.get("y"));
+            Integer z = parseNumber(arguments.get("z"));
+            // unreadable coordinates fall back to the location of the sender
+            if (x != null && y != null && z != null) origin = new int[]{x, y, z};
+        }
+
+        List<SelectorFilter> filters = new ArrayList<>();
+        String region = arguments.get("region");
+        String world = arguments.get("world");
+
+        // a specific world, otherwise the world of the sender (unless we're looking for a region, which can be anywhere)
+        if (world != null) {
+            filters.add((player, context) -> context.locationOf(player).getWorld().getName().equals(world));
+        } else if (region == null || target == CompiledSelector.Target.NEAREST) {
+            filters.add((player, context) -> sameWorld(context.locationOf(player), context.getStandPoint()));
+        }
+
+        String radiusArgument = arguments.containsKey("r") ? arguments.get("r") : arguments.get("distance");
+        if (radiusArgument != null) {
+            Integer radius = parseNumber(radiusArgument);
+            if (radius == null) return invalid(selector);
+            double radiusSquared = (double) radius * radius;
+            filters.add((player, context) -> {
+                Location location = context.locationOf(player);
+                return sameWorld(location, context.getStandPoint()) && location.distanceSquared(context.getStandPoint()) < radiusSquared;
+            });
+        }
+
+        if (region != null) {
+            String regionName = region.toLowerCase();
+            // without a region provider nobody is in any region, so this selects nobody instead of everyone
+            filters.add((player, context) -> context.regionsOf(player).contains(regionName));
+        }
+
+        return new CompiledSelector(selector, target, arguments, origin, region != null, filters);
+    }
+
+    /**
+     * @return the arguments between the brackets, or null if they're malformed
+     */
+    static Map<String, String> parseArguments(String selector) {
+        Map<String, String> arguments = new HashMap<>();
+        int open = selector.indexOf('[');
+        if (open == -1) return arguments;
+
+        int close = selector.lastIndexOf(']');
+        if (close < open) return null;
+
+        String body = selector.substring(open + 1, close);
+        if (body.trim().isEmpty()) return arguments;
+
+        for (String argument : body.split(",")) {
+            int split = argument.indexOf('=');
+            if (split <= 0) return null;
+            arguments.put(argument.substring(0, split).trim().toLowerCase(), argument.substring(split + 1).trim());
+        }
+        return arguments;
+    }
+
+    private static Integer parseNumber(String input) {
+        try {
+            return Integer.parseInt(input.replaceAll("[^\\d-]", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean sameWorld(Location a, Location b) {
+        return a.getWorld() != null && b.getWorld() != null && a.getWorld().getName().equals(b.getWorld().getName());
+    }
+
+    private static CompiledSelector invalid(String selector) {
+        return new CompiledSelector(selector, CompiledSelector.Target.INVALID, new HashMap<>(), null, false, new ArrayList<>());
+    }
+
+}
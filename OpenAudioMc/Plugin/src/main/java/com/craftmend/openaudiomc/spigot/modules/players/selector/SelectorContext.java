@@ -0,0 +1,45 @@
+package com.craftmend.openaudiomc.spigot.modules.players.selector;
+
+import com.craftmend.openaudiomc.integrations.regionprovider.RegisteredRegion;
+import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+/**
+ * State of a single selector evaluation. Player locations and regions are looked up at most once per player,
+ * no matter how many filters need them.
+ */
+public class SelectorContext {
+
+    @Getter private final Location standPoint;
+    private final RegionModule regionModule;
+    private final Map<UUID, Location> locations = new HashMap<>();
+    private final Map<UUID, Set<String>> regions = new HashMap<>();
+
+    public SelectorContext(Location standPoint, RegionModule regionModule) {
+        this.standPoint = standPoint;
+        this.regionModule = regionModule;
+    }
+
+    public Location locationOf(Player player) {
+        return locations.computeIfAbsent(player.getUniqueId(), id -> player.getLocation());
+    }
+
+    /**
+     * @return the lowercase names of all regions the player is in
+     */
+    public Set<String> regionsOf(Player player) {
+        return regions.computeIfAbsent(player.getUniqueId(), id -> {
+            if (regionModule == null) return Collections.emptySet();
+            Set<String> names = new HashSet<>();
+            for (RegisteredRegion region : regionModule.getRegionAdapter().getRegionsAtLocation(locationOf(player))) {
+                names.add(region.getName().toLowerCase());
+            }
+            return names;
+        });
+    }
+
+}
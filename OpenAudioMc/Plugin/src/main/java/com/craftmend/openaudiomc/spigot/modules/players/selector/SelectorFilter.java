@@ -0,0 +1,9 @@
+package com.craftmend.openaudiomc.spigot.modules.players.selector;
+
+import org.bukkit.entity.Player;
+
+public interface SelectorFilter {
+
+    boolean test(Player player, SelectorContext context);
+
+}
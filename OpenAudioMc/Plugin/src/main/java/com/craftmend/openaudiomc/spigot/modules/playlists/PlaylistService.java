@@ -45,7 +45,7 @@ public class PlaylistService extends Service implements UrlMutation {
     public void saveAll() {
         for (Playlist value : cachedPlaylists.values()) {
             // save the playlist itself
-            playlistRepository.save(value);
+            playlistRepository.saveLater(value);
 
             // delete entries
             for (PlaylistEntry deletedEntry : value.getDeletedEntries()) {
@@ -55,9 +55,7 @@ public class PlaylistService extends Service implements UrlMutation {
             value.getDeletedEntries().clear();
 
             // save the other entries
-            for (PlaylistEntry entry : value.getEntries()) {
-                playlistEntryRepository.save(entry);
-            }
+            playlistEntryRepository.saveAllLater(value.getEntries());
         }
     }
 
@@ -0,0 +1,58 @@
+package com.craftmend.openaudiomc.spigot.modules.predictive;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.bukkit.Location;
+
+/**
+ * Identifies a 150x150 block audio chunk within a world. The grid position is packed into a single long,
+ * so chunks can be stored and looked up without building strings.
+ */
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class AudioChunkKey {
+
+    public static final int CHUNK_SIZE = 150;
+
+    private final String world;
+    private final long packed;
+
+    public static AudioChunkKey of(Location location) {
+        return new AudioChunkKey(
+                location.getWorld().getName(),
+                pack(step(location.getBlockX()), step(location.getBlockZ()))
+        );
+    }
+
+    /**
+     * Parse a chunk name from before chunks were world-scoped (x@z), and place it in the given world
+     */
+    public static AudioChunkKey fromLegacyName(String world, String legacyName) {
+        String[] parts = legacyName.split("@");
+        if (parts.length != 2) throw new IllegalArgumentException("Invalid legacy chunk name " + legacyName);
+        return new AudioChunkKey(world, pack(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public int getX() {
+        return (int) (packed >> 32);
+    }
+
+    public int getZ() {
+        return (int) packed;
+    }
+
+    private static int step(int i) {
+        return i / CHUNK_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return world + ":" + getX() + "@" + getZ();
+    }
+}
@@ -10,6 +10,7 @@ import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
 import com.craftmend.openaudiomc.generic.networking.interfaces.INetworkingEvents;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.interfaces.SourceHolder;
+import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
 import com.craftmend.openaudiomc.generic.utils.data.ConcurrentHeatMap;
@@ -17,93 +18,187 @@ import com.craftmend.openaudiomc.generic.utils.data.ConcurrentHeatMap;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.ChunkMapSerializer;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.SerializedAudioChunk;
 import com.craftmend.openaudiomc.spigot.modules.predictive.sorage.StoredWorldChunk;
-import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
-import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @NoArgsConstructor
 public class PredictiveMediaService extends Service {
 
     @Inject
     private DatabaseService databaseService;
+    @Inject
+    private TaskService taskService;
 
     private final ChunkMapSerializer chunkMapSerializer = new ChunkMapSerializer();
     private final int chunkAge = 60 * 60 * 10;  // chunk values are kept for 10 hours
-    private final int maxChunkData = 70;       // keep up to 70 chunks
+    private final int maxChunkData = 70;       // keep up to 70 chunks per world
     private final int maxChunkCache = 15;      // keep 15 sounds per chunk
+    private final double decayFactor = 0.9;    // sounds lose 10% of their score every hour
 
-    // map "active" audio chunks of the world
-    @Getter
-    private ConcurrentHeatMap<String, ConcurrentHeatMap<String, Byte>> chunkTracker = new ConcurrentHeatMap<>(
-            chunkAge,
-            maxChunkData,
-            () -> new ConcurrentHeatMap<String, Byte>(chunkAge, maxChunkCache, ConcurrentHeatMap.BYTE_CONTEXT)
-    );
+    // map "active" audio chunks of every world, by their packed grid position
+    private final Map<String, ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>>> worlds = new ConcurrentHashMap<>();
+    // rows we loaded or wrote, so saving a chunk again updates its row instead of adding a new one
+    private final Map<AudioChunkKey, StoredWorldChunk> storedChunks = new ConcurrentHashMap<>();
+    // chunks that changed since they were last written
+    private final Set<AudioChunkKey> dirtyChunks = ConcurrentHashMap.newKeySet();
 
     @Override
     public void onEnable() {
         OpenAudioMc.getService(NetworkingService.class).addEventHandler(getPacketHook());
 
-        chunkTracker.setDeleteConsumer((deletable) -> {
-            Repository<StoredWorldChunk> repo = databaseService.getRepository(StoredWorldChunk.class);
-            StoredWorldChunk c = repo.getWhere("chunk_name", deletable);
-            if (c != null) {
-                OpenAudioLogger.info("Deleted stale media chunk " + c.getChunkName() + " from database.");
-                repo.delete(c);
-            } else {
-                OpenAudioLogger.warn("Failed to delete media chunk " + deletable + " from database, not found.");
-            }
-        });
-
         try {
             loadFromFile();
-            OpenAudioLogger.info("Loaded " + chunkTracker.size() + " media chunks from file.");
-        } catch (IOException e) {
-            OpenAudioLogger.warn("Failed to load chunk-cache from file.");
+            OpenAudioLogger.info("Loaded " + storedChunks.size() + " media chunks from the database.");
+        } catch (Exception e) {
+            OpenAudioLogger.warn("Failed to load chunk-cache from the database.");
         }
+
+        taskService.scheduleAsyncRepeatingTask(this::decay, 20 * 60 * 60, 20 * 60 * 60);
+        // write changed chunks every 5 minutes, so a crash doesn't lose everything
+        taskService.scheduleAsyncRepeatingTask(this::saveDirty, 20 * 60 * 5, 20 * 60 * 5);
     }
 
-    public void loadFromFile() throws IOException {
-        // load SerializedAudioChunk.ChunkMap.class
+    public void loadFromFile() {
         Repository<StoredWorldChunk> scm = databaseService.getRepository(StoredWorldChunk.class);
-        SerializedAudioChunk.ChunkMap cm = new SerializedAudioChunk.ChunkMap();
 
         int deleted = 0;
         for (StoredWorldChunk value : scm.values()) {
+            AudioChunkKey key = value.toKey();
+            // rows from before chunks had a world are converted by a migration, don't guess
+            if (key == null) continue;
+
             // it might be worthless
             // delete optional chunk if applicable
-            if (value.getAudioChunk().getResources().isEmpty()) {
+            if (value.getAudioChunk() == null || value.getAudioChunk().getResources().isEmpty()) {
                 scm.delete(value);
                 deleted++;
                 continue;
             }
-            cm.getData().put(value.getChunkName(), value.getAudioChunk());
+
+            // older versions inserted a new row on every shutdown, keep the most recent one
+            StoredWorldChunk known = storedChunks.get(key);
+            if (known != null) {
+                StoredWorldChunk outdated = known.getId() > value.getId() ? value : known;
+                scm.delete(outdated);
+                deleted++;
+                if (outdated == known) storedChunks.put(key, value);
+                continue;
+            }
+            storedChunks.put(key, value);
+        }
+
+        for (Map.Entry<AudioChunkKey, StoredWorldChunk> entry : storedChunks.entrySet()) {
+            chunkMapSerializer.applyChunk(entry.getValue().getAudioChunk(), getChunkContext(entry.getKey()));
         }
 
         if (deleted > 0) {
             OpenAudioLogger.info("Purged " + deleted + " stale media chunks from database.");
         }
-
-        chunkTracker = chunkMapSerializer.applyFromChunkMap(cm, chunkTracker);
     }
 
     public void onDisable() {
         // save
         OpenAudioLogger.info("Saving world cache...");
+        int written = saveDirty();
+        // don't wait for the background flush, the database gets closed after this
+        int failed = databaseService.getRepository(StoredWorldChunk.class).flush();
+        OpenAudioLogger.info("Saved " + (written - Math.min(written, failed)) + " of " + written + " changed media chunks to db.");
+    }
+
+    /**
+     * Get the sounds that were played in a chunk, creating the chunk if it isn't tracked yet
+     */
+    public ConcurrentHeatMap<String, Byte> getChunkContext(AudioChunkKey key) {
+        return getWorld(key.getWorld()).get(key.getPacked()).bump().getContext();
+    }
+
+    /**
+     * Get the sounds that were played in a chunk without touching it, so it isn't created or kept alive by this
+     *
+     * @return the context, or null if the chunk isn't tracked
+     */
+    public ConcurrentHeatMap<String, Byte> peekChunkContext(AudioChunkKey key) {
+        ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>> world = worlds.get(key.getWorld());
+        if (world == null) return null;
+        ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>>.Value chunk = world.getMap().get(key.getPacked());
+        return chunk == null ? null : chunk.getContext();
+    }
+
+    /**
+     * Flag a chunk to be written with the next save, call this after changing its context
+     */
+    public void markDirty(AudioChunkKey key) {
+        dirtyChunks.add(key);
+    }
+
+    public String locationToAudioChunkId(Location location) {
+        return AudioChunkKey.of(location).toString();
+    }
+
+    /**
+     * Queue every chunk that changed since the last save. The repository writes the ones that are already stored
+     * with a single batched update when it flushes, new ones get inserted one by one.
+     */
+    private int saveDirty() {
         Repository<StoredWorldChunk> repo = databaseService.getRepository(StoredWorldChunk.class);
-        int written = 0;
-        for (Map.Entry<String, SerializedAudioChunk.Chunk> entry : chunkMapSerializer.serialize(chunkTracker).getData().entrySet()) {
-            String name = entry.getKey();
-            SerializedAudioChunk.Chunk chunk = entry.getValue();
-            StoredWorldChunk swc = new StoredWorldChunk(name, chunk);
-            repo.save(swc);
-            written++;
+        int queued = 0;
+        for (AudioChunkKey key : dirtyChunks) {
+            dirtyChunks.remove(key);
+
+            ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>> world = worlds.get(key.getWorld());
+            ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>>.Value chunk = world == null ? null : world.getMap().get(key.getPacked());
+            // evicted in the meantime
+            if (chunk == null) continue;
+
+            SerializedAudioChunk.Chunk serialized = chunkMapSerializer.serializeChunk(chunk.getContext());
+            StoredWorldChunk row = storedChunks.get(key);
+            if (row == null) {
+                row = new StoredWorldChunk(key, serialized);
+                storedChunks.put(key, row);
+            } else {
+                row.setAudioChunk(serialized);
+            }
+            repo.saveLater(row);
+            queued++;
         }
-        OpenAudioLogger.info("Saved " + written + " media chunks to db.");
+        return queued;
+    }
+
+    private void decay() {
+        for (Map.Entry<String, ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>>> world : worlds.entrySet()) {
+            for (ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>>.Value chunk : world.getValue().getValues()) {
+                if (chunk.getContext().decay(decayFactor)) {
+                    markDirty(new AudioChunkKey(world.getKey(), chunk.getValue()));
+                }
+            }
+        }
+    }
+
+    private ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>> getWorld(String name) {
+        return worlds.computeIfAbsent(name, worldName -> {
+            ConcurrentHeatMap<Long, ConcurrentHeatMap<String, Byte>> chunks = new ConcurrentHeatMap<>(
+                    chunkAge,
+                    maxChunkData,
+                    () -> new ConcurrentHeatMap<String, Byte>(chunkAge, maxChunkCache, ConcurrentHeatMap.BYTE_CONTEXT)
+            );
+            chunks.setDeleteConsumer(packed -> onChunkEvicted(new AudioChunkKey(worldName, packed)));
+            return chunks;
+        });
+    }
+
+    private void onChunkEvicted(AudioChunkKey key) {
+        dirtyChunks.remove(key);
+        StoredWorldChunk row = storedChunks.remove(key);
+        if (row == null) return;
+        taskService.runAsync(() -> {
+            databaseService.getRepository(StoredWorldChunk.class).delete(row);
+            OpenAudioLogger.info("Deleted stale media chunk " + key + " from database.");
+        });
     }
 
     private INetworkingEvents getPacketHook() {
@@ -115,23 +210,12 @@ public class PredictiveMediaService extends Service {
                     ClientConnection client = (ClientConnection) target;
                     Player player = (Player) client.getUser().getOriginal();
 
-                    // bump the source for the players chunk chunk
-                    chunkTracker.get(locationToAudioChunkId(player.getLocation())).getContext().bump(source);
+                    // bump the source for the players chunk, creating the chunk if needed but leaving its own score alone
+                    AudioChunkKey key = AudioChunkKey.of(player.getLocation());
+                    getWorld(key.getWorld()).get(key.getPacked()).getContext().bump(source);
+                    markDirty(key);
                 }
             }
         };
     }
-
-    public String locationToAudioChunkId(Location location) {
-        int chunkX = step(location.getBlockX());
-        int chunkZ = step(location.getBlockZ());
-        return chunkX + "@" + chunkZ;
-    }
-
-    private Integer step(Integer i) {
-        if (i == 0) {
-            return 0;
-        }
-        return i / 150;
-    }
 }
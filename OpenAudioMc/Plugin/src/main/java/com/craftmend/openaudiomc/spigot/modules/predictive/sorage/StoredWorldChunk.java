@@ -1,23 +1,44 @@
 package com.craftmend.openaudiomc.spigot.modules.predictive.sorage;
 
 import com.craftmend.openaudiomc.generic.database.internal.DataStore;
+import com.craftmend.openaudiomc.spigot.modules.predictive.AudioChunkKey;
 import com.craftmend.openaudiomc.spigot.modules.predictive.serialization.SerializedAudioChunk;
 import com.craftmend.storm.api.markers.Column;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 @Getter
 @NoArgsConstructor
-@AllArgsConstructor
 public class StoredWorldChunk extends DataStore {
 
+    // human readable version of the key, world:x@z (or x@z for chunks from before they were world-scoped)
     @Column
     private String chunkName;
 
+    @Column
+    private String world;
+
+    // packed grid position, see AudioChunkKey
+    @Column
+    private Long chunkKey;
+
+    @Setter
     @Column(
             storeAsBlob = true
     )
     private SerializedAudioChunk.Chunk audioChunk;
 
+    public StoredWorldChunk(AudioChunkKey key, SerializedAudioChunk.Chunk audioChunk) {
+        this.chunkName = key.toString();
+        this.world = key.getWorld();
+        this.chunkKey = key.getPacked();
+        this.audioChunk = audioChunk;
+    }
+
+    public AudioChunkKey toKey() {
+        if (world == null || chunkKey == null) return null;
+        return new AudioChunkKey(world, chunkKey);
+    }
+
 }
@@ -8,7 +8,8 @@ import com.craftmend.openaudiomc.generic.client.helpers.SerializableClient;
 import com.craftmend.openaudiomc.generic.networking.interfaces.Authenticatable;
 import com.craftmend.openaudiomc.generic.networking.interfaces.INetworkingEvents;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
-import com.craftmend.openaudiomc.generic.node.packets.ForwardSocketPacket;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.node.packets.ForwardSocketBatchPacket;
 import com.craftmend.openaudiomc.generic.platform.interfaces.TaskService;
 import com.craftmend.openaudiomc.generic.proxy.interfaces.UserHooks;
 import com.craftmend.openaudiomc.api.user.User;
@@ -19,7 +20,10 @@ import com.craftmend.openaudiomc.generic.proxy.messages.implementations.BukkitPa
 import lombok.Getter;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ProxyNetworkingService extends NetworkingService {
 
@@ -30,6 +34,10 @@ public class ProxyNetworkingService extends NetworkingService {
     private BukkitPacketManager packetManager;
     private int packetThroughput = 0;
 
+    // forwarded packets per player, flushed to the proxy as one batch every tick
+    private final Map<UUID, PendingForward> pendingForwards = new ConcurrentHashMap<>();
+    private final AtomicInteger batchIds = new AtomicInteger();
+
     public ProxyNetworkingService() {
         this.onModuleLoad();
     }
@@ -43,6 +51,8 @@ public class ProxyNetworkingService extends NetworkingService {
         OpenAudioMc.resolveDependency(TaskService.class).scheduleAsyncRepeatingTask(() -> {
             packetThroughput = 0;
         }, 20, 20);
+
+        OpenAudioMc.resolveDependency(TaskService.class).scheduleAsyncRepeatingTask(this::flushForwards, 1, 1);
     }
 
     @Override
@@ -60,13 +70,34 @@ public class ProxyNetworkingService extends NetworkingService {
             throw new UnsupportedOperationException("The bungee adapter for the networking service only supports client connections");
         if (packet.getClass().getSimpleName().startsWith("PacketClient")) {
             packet.setClient(client.getOwner().getUniqueId());
-            OpenAudioMc.resolveDependency(UserHooks.class).sendPacket(((ClientConnection) client).getUser(),
-                    new ForwardSocketPacket(packet));
+            PendingForward pending = pendingForwards.computeIfAbsent(client.getOwner().getUniqueId(), uuid -> new PendingForward((ClientConnection) client));
+            synchronized (pending) {
+                pending.packets.add(packet);
+            }
         }
 
         packetThroughput++;
     }
 
+    private void flushForwards() {
+        for (PendingForward pending : pendingForwards.values()) {
+            List<AbstractPacket> packets;
+            synchronized (pending) {
+                if (pending.packets.isEmpty()) continue;
+                packets = new ArrayList<>(pending.packets);
+                pending.packets.clear();
+            }
+
+            try {
+                for (ForwardSocketBatchPacket part : ForwardSocketBatchPacket.encode(batchIds.incrementAndGet(), packets)) {
+                    OpenAudioMc.resolveDependency(UserHooks.class).sendPacket(pending.client.getUser(), part);
+                }
+            } catch (IOException e) {
+                OpenAudioLogger.error(e, "Failed to forward " + packets.size() + " packets for " + pending.client.getOwner().getName());
+            }
+        }
+    }
+
     @Override
     public void triggerPacket(AbstractPacket abstractPacket) {
         // unused in fake system
@@ -99,6 +130,7 @@ public class ProxyNetworkingService extends NetworkingService {
 
     @Override
     public void remove(UUID player) {
+        pendingForwards.remove(player);
         realService.remove(player);
     }
 
@@ -121,4 +153,13 @@ public class ProxyNetworkingService extends NetworkingService {
     public ClientConnection register(User player, @Nullable SerializableClient importData) {
         return realService.register(player, importData);
     }
+
+    private static class PendingForward {
+        private final ClientConnection client;
+        private final List<AbstractPacket> packets = new ArrayList<>();
+
+        private PendingForward(ClientConnection client) {
+            this.client = client;
+        }
+    }
 }
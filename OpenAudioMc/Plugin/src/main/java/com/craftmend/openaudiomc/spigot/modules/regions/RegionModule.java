@@ -21,6 +21,7 @@ import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
 import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.RegionMutator;
 import com.craftmend.openaudiomc.spigot.modules.regions.listeners.WorldLoadListener;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
+import com.craftmend.openaudiomc.spigot.modules.regions.registry.RegionLookupCache;
 import com.craftmend.openaudiomc.spigot.modules.regions.registry.WorldRegionManager;
 import com.craftmend.openaudiomc.spigot.modules.version.MinecraftVersion;
 import com.craftmend.openaudiomc.spigot.services.server.ServerService;
@@ -36,6 +37,7 @@ public class RegionModule {
 
     @Getter private AbstractRegionAdapter regionAdapter;
     private final Map<String, WorldRegionManager> worldManagers = new HashMap<>();
+    @Getter private final RegionLookupCache lookupCache = new RegionLookupCache(StorageKey.SETTINGS_REGION_LOOKUP_CACHE.getBoolean());
 
     // This list contains legacy regions that are not in a world.
     // This is a fallback for legacy versions and kinda hacky, but we don't have a choice.
@@ -80,6 +82,7 @@ public class RegionModule {
         OpenAudioMc.getService(MediaService.class).getResetTriggers().add(() -> {
             // clean media once a new media adapter is loaded, this ensures that they will be re-evaluated
             worldManagers.forEach((s, worldRegionManager) -> {worldRegionManager.dropMediaCache();});
+            lookupCache.invalidateAll();
         });
 
         // register unknown regions
@@ -198,6 +201,8 @@ public class RegionModule {
     }
 
     public void forceUpdateRegions() {
+        // regions were created, edited or removed, so nothing we resolved before can be trusted
+        lookupCache.invalidateAll();
         for (SpigotConnection client : OpenAudioMc.getService(SpigotPlayerService.class).getClients()) {
             if (client.getRegionHandler() != null) client.getRegionHandler().tick();
         }
@@ -218,7 +223,7 @@ public class RegionModule {
         if (world == null) world = StorageKey.SETTINGS_DEFAULT_WORLD_NAME.getString();
 
         if (!worldManagers.containsKey(world)) {
-            worldManagers.put(world, new WorldRegionManager(world));
+            worldManagers.put(world, new WorldRegionManager(world, lookupCache));
         }
 
         return worldManagers.get(world);
@@ -4,6 +4,7 @@ import com.craftmend.openaudiomc.integrations.regionprovider.RegisteredRegion;
 import com.craftmend.openaudiomc.spigot.modules.regions.RegionModule;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.Region;
 import com.craftmend.openaudiomc.spigot.modules.regions.objects.RegionProperties;
+import com.craftmend.openaudiomc.spigot.modules.regions.registry.RegionLookupCache;
 import com.craftmend.openaudiomc.spigot.modules.regions.registry.WorldRegionManager;
 import org.bukkit.Location;
 import org.jetbrains.annotations.NotNull;
@@ -24,6 +25,17 @@ public abstract class RegionAdapterBase {
     }
 
     public List<IRegion> getAudioRegions(Location location) {
+        // players on the same block share the same result, if the cache is enabled
+        RegionLookupCache lookupCache = regionModule.getLookupCache();
+        List<IRegion> cached = lookupCache.get(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if (cached != null) return cached;
+
+        List<IRegion> regions = resolveAudioRegions(location);
+        lookupCache.put(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), regions);
+        return regions;
+    }
+
+    private List<IRegion> resolveAudioRegions(Location location) {
         List<IRegion> regions = new ArrayList<>();
         int prio = 0;
         WorldRegionManager worldRegionManager = regionModule.getWorld(location.getWorld().getName());
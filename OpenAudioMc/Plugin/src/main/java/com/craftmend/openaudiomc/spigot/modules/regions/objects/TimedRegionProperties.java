@@ -51,7 +51,7 @@ public class TimedRegionProperties extends RegionProperties {
         OpenAudioMc.getService(SpigotPlayerService.class).getClients()
                 .stream()
                 .filter(client -> client.getRegions().stream().anyMatch(region -> region.getId().equals(regionId)))
-                .forEach(client -> client.getLocationDataWatcher().forceTicK());
+                .forEach(client -> client.forceLocationTick());
     }
 
     public void destroy() {
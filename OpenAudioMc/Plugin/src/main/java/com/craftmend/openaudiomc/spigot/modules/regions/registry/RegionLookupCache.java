@@ -0,0 +1,88 @@
+package com.craftmend.openaudiomc.spigot.modules.regions.registry;
+
+import com.craftmend.openaudiomc.spigot.modules.regions.interfaces.IRegion;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded LRU cache of resolved audio regions per block position, so players standing on the same spot
+ * share a single region provider lookup. Entries are keyed by block (and not by chunk) because
+ * WorldGuard regions don't align with chunk borders.
+ * <br>
+ * The cache for a world is dropped whenever a region gets (un)registered in its {@link WorldRegionManager}, and
+ * all of it whenever regions get edited (see {@link com.craftmend.openaudiomc.spigot.modules.regions.RegionModule#forceUpdateRegions()}).
+ * Region geometry changes made in WorldGuard itself are not observable, so entries also expire after a short time.
+ */
+public class RegionLookupCache {
+
+    private static final int MAX_ENTRIES_PER_WORLD = 16384;
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    @Getter private final boolean enabled;
+    private final Map<String, LinkedHashMap<Long, CachedRegions>> worlds = new HashMap<>();
+
+    public RegionLookupCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return a copy of the cached regions, or null if there's no (valid) entry for this block
+     */
+    public List<IRegion> get(String world, int x, int y, int z) {
+        if (!enabled) return null;
+        synchronized (this) {
+            LinkedHashMap<Long, CachedRegions> cache = worlds.get(world);
+            if (cache == null) return null;
+
+            long key = blockKey(x, y, z);
+            CachedRegions cached = cache.get(key);
+            if (cached == null) return null;
+
+            if (System.nanoTime() - cached.createdAt > MAX_AGE_NANOS) {
+                cache.remove(key);
+                return null;
+            }
+
+            return new ArrayList<>(cached.regions);
+        }
+    }
+
+    public void put(String world, int x, int y, int z, List<IRegion> regions) {
+        if (!enabled) return;
+        CachedRegions cached = new CachedRegions(Collections.unmodifiableList(new ArrayList<>(regions)), System.nanoTime());
+        synchronized (this) {
+            worlds.computeIfAbsent(world, w -> new LinkedHashMap<Long, CachedRegions>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedRegions> eldest) {
+                    return size() > MAX_ENTRIES_PER_WORLD;
+                }
+            }).put(blockKey(x, y, z), cached);
+        }
+    }
+
+    public synchronized void invalidate(String world) {
+        worlds.remove(world);
+    }
+
+    public synchronized void invalidateAll() {
+        worlds.clear();
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        // same layout as minecraft's packed block positions, 26 bits x/z and 12 bits y
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (long) (y & 0xFFF);
+    }
+
+    private static class CachedRegions {
+        private final List<IRegion> regions;
+        private final long createdAt;
+
+        private CachedRegions(List<IRegion> regions, long createdAt) {
+            this.regions = regions;
+            this.createdAt = createdAt;
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ import java.util.Set;
 public class WorldRegionManager {
 
     private String world;
+    private final RegionLookupCache lookupCache;
 
     // map region source -> shared media
     private final Map<String, RegionMedia> regionMediaMap = new HashMap<>();
@@ -19,8 +20,9 @@ public class WorldRegionManager {
     // map region name -> region properties / settings
     private final Map<String, RegionProperties> regionPropertiesMap = new HashMap<>();
 
-    public WorldRegionManager(String world) {
+    public WorldRegionManager(String world, RegionLookupCache lookupCache) {
         this.world = world;
+        this.lookupCache = lookupCache;
     }
 
     public void registerRegion(RegionProperties addedRegion) {
@@ -36,6 +38,7 @@ public class WorldRegionManager {
         }
 
         regionPropertiesMap.put(addedRegion.getRegionName(), addedRegion);
+        lookupCache.invalidate(world);
 
         // update media
         if (regionMediaMap.get(addedRegion.getSource()) != null) {
@@ -54,6 +57,7 @@ public class WorldRegionManager {
 
     public void unregisterRegion(String regionName) {
         regionPropertiesMap.remove(regionName);
+        lookupCache.invalidate(world);
     }
 
     public boolean containsRegion(String regionName) {
@@ -1,6 +1,7 @@
 package com.craftmend.openaudiomc.spigot.modules.show;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.generic.service.Inject;
 import com.craftmend.openaudiomc.generic.service.Service;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
@@ -9,7 +10,9 @@ import com.craftmend.openaudiomc.spigot.modules.show.objects.Show;
 import com.craftmend.openaudiomc.spigot.modules.show.runnables.ActionBarRunnable;
 import com.craftmend.openaudiomc.spigot.modules.show.runnables.ChatRunnable;
 import com.craftmend.openaudiomc.spigot.modules.show.runnables.CommandRunnable;
+import com.craftmend.openaudiomc.spigot.services.threading.ExecutorService;
 import lombok.NoArgsConstructor;
+import org.bukkit.Bukkit;
 import org.bukkit.World;
 
 import java.io.File;
@@ -17,6 +20,7 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @NoArgsConstructor
 public class ShowService extends Service {
@@ -24,8 +28,13 @@ public class ShowService extends Service {
     @Inject
     private OpenAudioMcSpigot openAudioMcSpigot;
 
+    @Inject
+    private ExecutorService executorService;
+
     private final Map<String, Class<?>> taskTypes = new HashMap<>();
     private final Map<String, Show> showCache = new HashMap<>();
+    // every show that's currently playing, they're all driven by the same tick
+    private final Set<Show> runningShows = ConcurrentHashMap.newKeySet();
 
     @Override
     public void onEnable() {
@@ -33,6 +42,50 @@ public class ShowService extends Service {
         taskTypes.put("command", CommandRunnable.class);
         taskTypes.put("chat", ChatRunnable.class);
         taskTypes.put("actionbar", ActionBarRunnable.class);
+
+        executorService.getTickRunnables().add(this::tickShows);
+    }
+
+    public void play(Show show) {
+        runningShows.add(show);
+    }
+
+    public void remove(Show show) {
+        runningShows.remove(show);
+    }
+
+    public int getRunningShowCount() {
+        return runningShows.size();
+    }
+
+    /**
+     * Runs on the executor thread every tick. Cues of all shows that are due get collected,
+     * and then ran together in a single hop to the main thread.
+     */
+    private void tickShows() {
+        if (runningShows.isEmpty()) return;
+        try {
+            long now = System.nanoTime();
+            List<ShowRunnable> due = new ArrayList<>();
+            for (Show show : runningShows) {
+                if (show.collectDueCues(due, now)) {
+                    show.onEnd();
+                }
+            }
+
+            if (due.isEmpty()) return;
+            Bukkit.getScheduler().runTask(openAudioMcSpigot, () -> {
+                for (ShowRunnable cue : due) {
+                    try {
+                        cue.run();
+                    } catch (Exception e) {
+                        OpenAudioLogger.error(e, "Failed to run show cue " + cue.getClass().getSimpleName());
+                    }
+                }
+            });
+        } catch (Exception e) {
+            OpenAudioLogger.error(e, "Failed to tick shows");
+        }
     }
 
     public void addTask(String name, Class<?> executor) {
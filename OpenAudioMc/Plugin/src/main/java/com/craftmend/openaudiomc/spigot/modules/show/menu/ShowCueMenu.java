@@ -59,7 +59,7 @@ public class ShowCueMenu extends Menu {
                 });
 
                 item.onClick((player, clicked) -> {
-                    show.getCueList().remove(cue);
+                    show.removeCue(cue);
                     show.save();
                     new ShowCueMenu(show, page).openFor(player);
                 });
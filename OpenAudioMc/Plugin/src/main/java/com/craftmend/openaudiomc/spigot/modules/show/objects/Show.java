@@ -3,6 +3,7 @@ package com.craftmend.openaudiomc.spigot.modules.show.objects;
 import com.craftmend.openaudiomc.OpenAudioMc;
 import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
 import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.show.ShowService;
 import com.craftmend.openaudiomc.spigot.modules.show.interfaces.ShowRunnable;
 import lombok.Getter;
 
@@ -12,33 +13,51 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 
+/**
+ * Cues are kept sorted by time. While running, a show plays a snapshot of them from a cursor,
+ * the shared runtime in the ShowService moves that cursor every tick, based on the position of the show.
+ * The position is derived from a monotonic clock, so it can be paused, sped up or moved around at any time.
+ */
 public class Show {
 
     @Getter private final String showName;
-    @Getter private final Set<ShowCue> cueList = new HashSet<>();
-    private transient ScheduledExecutorService showTimer = null;
-    private transient Instant startedAt = null;
+    @Getter private final List<ShowCue> cueList = new ArrayList<>();
     @Getter private transient boolean isLooping = false;
-    @Getter private transient int eventsProcessed = 0;
     @Getter private Long lastTaskTime = 1L;
 
+    // playback state, only touched while holding the lock of the show
+    private transient ShowCue[] timeline = null;
+    private transient int cursor = 0;
+    private transient double basePosition = 0;
+    private transient long anchorNanos = 0;
+    @Getter private transient double speed = 1;
+    @Getter private transient boolean paused = false;
+
     public Show(String showName) {
         this.showName = showName;
     }
 
     public Show addCue(ShowRunnable task, Long time) {
-        cueList.add(new ShowCue(UUID.randomUUID(), time, task));
+        ShowCue cue = new ShowCue(UUID.randomUUID(), time, task);
+        synchronized (this) {
+            // keep the list in order, shows loaded from older files get sorted when they start
+            int index = cueList.size();
+            while (index > 0 && cueList.get(index - 1).getTimestamp() > time) index--;
+            cueList.add(index, cue);
+        }
         return this;
     }
 
+    /**
+     * Remove a cue, a running show keeps playing its snapshot until it starts over
+     */
+    public synchronized boolean removeCue(ShowCue cue) {
+        return cueList.remove(cue);
+    }
+
     @Override
     public String toString() {
         return OpenAudioMc.getGson().toJson(this);
@@ -48,15 +67,19 @@ public class Show {
         return OpenAudioMc.getGson().fromJson(json, Show.class);
     }
 
-    public ShowCue getCueById(UUID id) {
+    public synchronized ShowCue getCueById(UUID id) {
         for (ShowCue showCue : cueList) {
             if (showCue.getId().equals(id)) return showCue;
         }
         return null;
     }
 
-    public boolean isRunning() {
-        return showTimer != null;
+    public synchronized boolean isRunning() {
+        return timeline != null;
+    }
+
+    public int getEventsProcessed() {
+        return cursor;
     }
 
     public void start() {
@@ -69,46 +92,120 @@ public class Show {
     }
 
     public void start(boolean fromLoop) {
-        if (isRunning()) return;
-        lastTaskTime = 1L;
-        eventsProcessed = 0;
+        synchronized (this) {
+            if (isRunning()) return;
+            speed = 1;
+            paused = false;
+            rewind();
+        }
+        OpenAudioMc.getService(ShowService.class).play(this);
+    }
 
-        showTimer = Executors.newScheduledThreadPool(1);
+    /**
+     * Freeze the show at its current position
+     */
+    public synchronized void pause() {
+        if (!isRunning() || paused) return;
+        basePosition = positionAt(System.nanoTime());
+        paused = true;
+    }
 
-        for (ShowCue cue : cueList) {
-            showTimer.schedule(() ->{
-                eventsProcessed++;
-                cue.getTask().run();
-            }, cue.getTimestamp(), TimeUnit.MILLISECONDS);
+    public synchronized void resume() {
+        if (!isRunning() || !paused) return;
+        anchorNanos = System.nanoTime();
+        paused = false;
+    }
+
+    /**
+     * Jump to a position in the show. Cues before it are skipped, cues from this point on will play again.
+     */
+    public synchronized void seek(long millis) {
+        if (!isRunning()) return;
+        basePosition = Math.max(0, Math.min(millis, lastTaskTime));
+        anchorNanos = System.nanoTime();
+        cursor = firstCueFrom((long) basePosition);
+    }
+
+    public synchronized void setSpeed(double speed) {
+        if (speed <= 0) throw new IllegalArgumentException("Speed must be positive, use pause() to stop the show");
+        if (isRunning()) {
+            basePosition = positionAt(System.nanoTime());
+            anchorNanos = System.nanoTime();
         }
+        this.speed = speed;
+    }
+
+    public synchronized long getPosition() {
+        if (!isRunning()) return 0;
+        return (long) positionAt(System.nanoTime());
+    }
+
+    /**
+     * Move all cues that are due into the given list, and return true if the show reached its end.
+     * Called by the show runtime every tick.
+     */
+    public synchronized boolean collectDueCues(List<ShowRunnable> due, long nowNanos) {
+        if (!isRunning()) return false;
+        double position = positionAt(nowNanos);
+        while (cursor < timeline.length && timeline[cursor].getTimestamp() <= position) {
+            due.add(timeline[cursor].getTask());
+            cursor++;
+        }
+        // one tick after the last cue
+        return cursor >= timeline.length && position >= lastTaskTime + 50;
+    }
+
+    /**
+     * Called by the show runtime once the show reached its end
+     */
+    public void onEnd() {
+        synchronized (this) {
+            if (isLooping && isRunning()) {
+                rewind();
+                return;
+            }
+        }
+        stop();
+    }
 
+    private void rewind() {
+        lastTaskTime = 1L;
         updateLastTime();
+        timeline = cueList.toArray(new ShowCue[0]);
+        Arrays.sort(timeline, Comparator.comparingLong(ShowCue::getTimestamp));
+        cursor = 0;
+        basePosition = 0;
+        anchorNanos = System.nanoTime();
+    }
 
-        // schedule a task every second for progress
-        int seconds = Math.toIntExact(lastTaskTime / 1000);
-        IntStream.range(1, seconds).forEach(i -> {
-            showTimer.schedule(() -> {
-                //
-            }, i * 1000, TimeUnit.MILLISECONDS);
-        });
+    private double positionAt(long nowNanos) {
+        if (paused) return basePosition;
+        return basePosition + ((nowNanos - anchorNanos) / 1_000_000.0) * speed;
+    }
 
-        // one tick after it ended
-        showTimer.schedule(() -> {
-            stop();
-            if (isLooping) start(true);
-        }, lastTaskTime + 50, TimeUnit.MILLISECONDS);
-        startedAt = Instant.now();
+    private int firstCueFrom(long millis) {
+        int low = 0;
+        int high = timeline.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeline[mid].getTimestamp() < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
     }
 
     public String currentFrameAsString() {
-        Long millis = Duration.between(startedAt, Instant.now()).toMillis();
+        long millis = getPosition();
         return String.format("%02d:%02d:%02d", TimeUnit.MILLISECONDS.toHours(millis),
                 TimeUnit.MILLISECONDS.toMinutes(millis) - TimeUnit.HOURS.toMinutes(TimeUnit.MILLISECONDS.toHours(millis)),
                 TimeUnit.MILLISECONDS.toSeconds(millis) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(millis)));
     }
 
     public String getTimeRemainingAsString() {
-        Long millis = getLastTaskTime() - Duration.between(startedAt, Instant.now()).toMillis();
+        long millis = Math.max(0, getLastTaskTime() - getPosition());
         return String.format("%02d:%02d:%02d", TimeUnit.MILLISECONDS.toHours(millis),
                 TimeUnit.MILLISECONDS.toMinutes(millis) - TimeUnit.HOURS.toMinutes(TimeUnit.MILLISECONDS.toHours(millis)),
                 TimeUnit.MILLISECONDS.toSeconds(millis) - TimeUnit.MINUTES.toSeconds(TimeUnit.MILLISECONDS.toMinutes(millis)));
@@ -125,8 +222,11 @@ public class Show {
     }
 
     public void stop() {
-        showTimer.shutdownNow();
-        showTimer = null;
+        synchronized (this) {
+            timeline = null;
+            paused = false;
+        }
+        OpenAudioMc.getService(ShowService.class).remove(this);
     }
 
     public Show save() {
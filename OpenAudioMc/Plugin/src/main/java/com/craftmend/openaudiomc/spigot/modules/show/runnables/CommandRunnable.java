@@ -34,7 +34,12 @@ import org.bukkit.World;
         if (!isExecutedFromRedis() && !command.toLowerCase().startsWith("oa show")) new ExecuteCommandPacket(command).send();
 
 
-        Bukkit.getScheduler().runTask(OpenAudioMcSpigot.getInstance(), () -> Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), command.trim()));
+        // shows already run their cues on the main thread
+        if (Bukkit.isPrimaryThread()) {
+            Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), command.trim());
+        } else {
+            Bukkit.getScheduler().runTask(OpenAudioMcSpigot.getInstance(), () -> Bukkit.getServer().dispatchCommand(Bukkit.getConsoleSender(), command.trim()));
+        }
 
         /**
         if (worldName == null) {
@@ -20,14 +20,21 @@ public class SpeakerCollector {
     private SpeakerService speakerService;
 
     public Collection<ApplicableSpeaker> getApplicableSpeakers(Location location, boolean safe) {
-        List<Speaker> applicableSpeakers = new ArrayList<>(speakerService.getSpeakerMap().values());
         Collection<ApplicableSpeaker> speakers = new ArrayList<>();
+        if (location.getWorld() == null) return speakers;
+
+        // only consider speakers in chunks that are within reach, instead of the entire speaker map
+        List<Speaker> applicableSpeakers = speakerService.getSpeakerIndex().getCandidates(
+                location.getWorld().getName(),
+                location.getBlockX(),
+                location.getBlockZ()
+        );
 
         applicableSpeakers.removeIf(speaker -> {
             if (speaker == null) return true;
             if (speaker.getLocation() == null && !safe) return true;
             if (!speaker.getLocation().getWorld().equals(location.getWorld().getName())) return true;
-            if (speaker.getLocation().toBukkit().distance(location) > speaker.getRadius()) return true;
+            if (!isInRange(speaker, location)) return true;
             if (ExtraSpeakerOptions.REQUIRES_REDSTONE.isEnabledFor(speaker) && speaker.getLocation().toBukkit().getChunk().isLoaded() && !speaker.getLocation().toBukkit().getBlock().isBlockPowered()) {
                 if (ExtraSpeakerOptions.RESET_PLAYTHROUGH_ON_REDSTONE_LOSS.isEnabledFor(speaker)) {
                     speaker.setLastRedstoneToggle(null);
@@ -48,6 +55,14 @@ public class SpeakerCollector {
         return speakers;
     }
 
+    private boolean isInRange(Speaker speaker, Location location) {
+        double dx = speaker.getLocation().getX() - location.getX();
+        double dy = speaker.getLocation().getY() - location.getY();
+        double dz = speaker.getLocation().getZ() - location.getZ();
+        double radius = speaker.getRadius();
+        return (dx * dx) + (dy * dy) + (dz * dz) <= radius * radius;
+    }
+
     public SpeakerType guessSpeakerType(Location location, String source) {
         Collection<ApplicableSpeaker> speakers = getApplicableSpeakers(location, true);
         speakers.removeIf(other -> !other.getSpeaker().getMedia().getSource().equals(source));
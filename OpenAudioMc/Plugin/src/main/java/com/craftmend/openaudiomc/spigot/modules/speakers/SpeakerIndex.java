@@ -0,0 +1,88 @@
+package com.craftmend.openaudiomc.spigot.modules.speakers;
+
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.MappedLocation;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.Speaker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index for speakers, bucketed per world and per chunk column.
+ * Lookups only visit the buckets that the largest known speaker radius can reach,
+ * instead of scanning every registered speaker.
+ */
+public class SpeakerIndex {
+
+    private final Map<String, Map<Long, Set<Speaker>>> worlds = new ConcurrentHashMap<>();
+
+    // only ever grows, so a shrinking radius just makes lookups slightly wider than needed
+    private volatile int maxRadius = 0;
+
+    public void add(Speaker speaker) {
+        MappedLocation location = speaker.getLocation();
+        if (location == null || location.getWorld() == null) return;
+        trackRadius(speaker);
+
+        worlds.computeIfAbsent(location.getWorld(), w -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey(location.getX() >> 4, location.getZ() >> 4), k -> ConcurrentHashMap.newKeySet())
+                .add(speaker);
+    }
+
+    public void remove(Speaker speaker, MappedLocation location) {
+        if (location == null || location.getWorld() == null) return;
+        Map<Long, Set<Speaker>> buckets = worlds.get(location.getWorld());
+        if (buckets == null) return;
+
+        buckets.computeIfPresent(chunkKey(location.getX() >> 4, location.getZ() >> 4), (key, bucket) -> {
+            bucket.remove(speaker);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    public void trackRadius(Speaker speaker) {
+        Integer radius = speaker.getRadius();
+        if (radius != null && radius > maxRadius) {
+            synchronized (this) {
+                if (radius > maxRadius) maxRadius = radius;
+            }
+        }
+    }
+
+    /**
+     * Collect all speakers whose chunk column is within reach of the largest speaker radius.
+     * The result is a superset of the audible speakers, callers still need to check the actual distance.
+     *
+     * @param world world name
+     * @param blockX block x of the listener
+     * @param blockZ block z of the listener
+     * @return candidate speakers
+     */
+    public List<Speaker> getCandidates(String world, int blockX, int blockZ) {
+        List<Speaker> candidates = new ArrayList<>();
+        Map<Long, Set<Speaker>> buckets = worlds.get(world);
+        if (buckets == null || buckets.isEmpty()) return candidates;
+
+        int radius = maxRadius;
+        int minChunkX = (blockX - radius) >> 4;
+        int maxChunkX = (blockX + radius) >> 4;
+        int minChunkZ = (blockZ - radius) >> 4;
+        int maxChunkZ = (blockZ + radius) >> 4;
+
+        for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+            for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+                Set<Speaker> bucket = buckets.get(chunkKey(cx, cz));
+                if (bucket != null) candidates.addAll(bucket);
+            }
+        }
+
+        return candidates;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+}
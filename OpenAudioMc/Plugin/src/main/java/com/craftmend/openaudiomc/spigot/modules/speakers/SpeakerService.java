@@ -25,7 +25,7 @@ import com.craftmend.openaudiomc.spigot.services.world.interfaces.IRayTracer;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerSelectListener;
 import com.craftmend.openaudiomc.spigot.modules.speakers.objects.*;
 import com.craftmend.openaudiomc.spigot.modules.speakers.tasks.SpeakerGarbageCollection;
-import com.craftmend.openaudiomc.spigot.services.world.tracing.DummyTracer;
+import com.craftmend.openaudiomc.spigot.services.world.tracing.DDARayTracer;
 import com.craftmend.openaudiomc.spigot.services.server.ServerService;
 import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
 import com.craftmend.openaudiomc.spigot.modules.speakers.listeners.SpeakerCreateListener;
@@ -55,11 +55,12 @@ public class SpeakerService extends Service {
 
     public static final SpeakerType DEFAULT_SPEAKER_TYPE = SpeakerType.SPEAKER_3D;
     @Getter private final Map<MappedLocation, Speaker> speakerMap = new ConcurrentHashMap<>();
+    @Getter private final SpeakerIndex speakerIndex = new SpeakerIndex();
     private final Map<String, SpeakerMedia> speakerMediaMap = new ConcurrentHashMap<>();
     @Getter private Material playerSkullItem;
     @Getter private Material playerSkullBlock;
     @Getter private ServerVersion version;
-    private final IRayTracer estimatedRayTracer = new DummyTracer();
+    private final IRayTracer rayTracer = new DDARayTracer();
 
     @Getter
     private AbstractSpeakerNbtUtil speakerNbtUtil;
@@ -175,7 +176,7 @@ public class SpeakerService extends Service {
             }
         }
 
-        // unregister the old location
+        // unregister the old location, this also drops it from the old index bucket
         unlistSpeaker(speaker.getLocation());
         // update the location
         speaker.setLocation(newLocation);
@@ -196,9 +197,12 @@ public class SpeakerService extends Service {
         }
     }
 
+    /**
+     * Traces against the live world, so only use it from the main thread.
+     * Async code (like the speaker handler) should go through the ObstructionService.
+     */
     public IRayTracer getRayTracer() {
-        // provide a default ray tracer, just use the simple one for now
-        return estimatedRayTracer;
+        return rayTracer;
     }
 
     private void initializeVersion() {
@@ -230,7 +234,11 @@ public class SpeakerService extends Service {
         if (speaker.getLocation() == null) {
             OpenAudioLogger.warn("Registering speaker with nil location " + speaker.getSpeakerId());
         }
-        speakerMap.put(speaker.getLocation(), speaker);
+        Speaker previous = speakerMap.put(speaker.getLocation(), speaker);
+        if (previous != null && previous != speaker) {
+            speakerIndex.remove(previous, previous.getLocation());
+        }
+        speakerIndex.add(speaker);
         return speaker;
     }
 
@@ -249,6 +257,9 @@ public class SpeakerService extends Service {
         if (!(location instanceof MappedLocation)) {
             throw new IllegalArgumentException("Location is not a MappedLocation");
         }
-        speakerMap.remove(location);
+        Speaker removed = speakerMap.remove(location);
+        if (removed != null) {
+            speakerIndex.remove(removed, (MappedLocation) location);
+        }
     }
 }
@@ -155,6 +155,7 @@ public class SpeakerMenu extends Menu {
                 .onClick((player, item) -> {
                     if (distance == speaker.getRadius()) return;
                     speaker.setRadius(distance);
+                    OpenAudioMc.getService(SpeakerService.class).getSpeakerIndex().trackRadius(speaker);
                     OpenAudioMc.getService(DatabaseService.class)
                             .getRepository(Speaker.class)
                             .save(speaker);
@@ -100,7 +100,7 @@ public class SpeakerGarbageCollection extends BukkitRunnable {
                     .delete(speaker);
         }
         OpenAudioMc.resolveDependency(TaskService.class).runAsync(() -> {
-            speakerService.getSpeakerMap().remove(speaker.getLocation());
+            speakerService.unlistSpeaker(speaker.getLocation());
         });
         PROCESSED_SPEAKERS++;
     }
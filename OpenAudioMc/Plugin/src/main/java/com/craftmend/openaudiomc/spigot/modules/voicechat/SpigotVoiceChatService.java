@@ -78,7 +78,7 @@ public class SpigotVoiceChatService extends Service {
         eventApi.registerHandler(ClientPeerAddEvent.class, event -> {
             // skip if this is disabled in the settings
             if (!event.getOptions().isSpatialAudio()) return; // exclude non-spatial audio clients
-            if (!StorageKey.SETTINGS_VC_ANNOUNCEMENTS.getBoolean()) return;
+            if (!StorageKey.SETTINGS_VC_ANNOUNCEMENTS.getCachedBoolean()) return;
 
             if (event.getClient().isModerating() && !event.getPeer().isModerating()) {
                 return;
@@ -92,7 +92,7 @@ public class SpigotVoiceChatService extends Service {
 
         eventApi.registerHandler(ClientPeerRemovedEvent.class, event -> {
             // skip if this is disabled in the settings
-            if (!StorageKey.SETTINGS_VC_ANNOUNCEMENTS.getBoolean()) return;
+            if (!StorageKey.SETTINGS_VC_ANNOUNCEMENTS.getCachedBoolean()) return;
 
             if (event.getClient().isModerating() && !event.getPeer().isModerating()) {
                 return;
@@ -220,7 +220,7 @@ public class SpigotVoiceChatService extends Service {
     }
 
     private void sendMessage(Actor player, String message) {
-        if (StorageKey.SETTINGS_VC_USE_HOTBAR.getBoolean()) {
+        if (StorageKey.SETTINGS_VC_USE_HOTBAR.getCachedBoolean()) {
             // use hotbar
             User<?> user = (User<?>) player;
             user.sendActionbarMessage(message);
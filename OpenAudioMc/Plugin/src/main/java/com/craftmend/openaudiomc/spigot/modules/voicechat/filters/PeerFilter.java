@@ -39,6 +39,7 @@ public class PeerFilter extends Filter<ClientConnection, Player> {
      */
     @Override
     public Stream<ClientConnection> wrap(Stream<ClientConnection> existingStream, Player context) {
+        FilterService filterService = OpenAudioMc.getService(FilterService.class);
         Stream<ClientConnection> s = existingStream.filter(possiblePeer -> {
             // check if the player is even valid
             if (!possiblePeer.getRtcSessionManager().isReady()) return false;
@@ -62,8 +63,6 @@ public class PeerFilter extends Filter<ClientConnection, Player> {
             if (otherPlayer.getLocation().distanceSquared(context.getLocation()) > MAX_DISTANCE_SQUARED) return false;
 
             //Check custom filters for other plugins to hook into
-            FilterService filterService = OpenAudioMc.getService(FilterService.class);
-
             boolean failedCheck = false;
 
             for (CustomPlayerFilter customFilterFunction : filterService.getCustomPlayerFilters()) {
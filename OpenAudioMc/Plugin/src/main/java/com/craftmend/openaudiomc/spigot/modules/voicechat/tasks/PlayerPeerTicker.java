@@ -11,9 +11,11 @@ import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService
 import com.craftmend.openaudiomc.generic.utils.data.Filter;
 import com.craftmend.openaudiomc.spigot.modules.voicechat.filters.PeerFilter;
 import com.craftmend.openaudiomc.spigot.modules.voicechat.utils.CombinationChecker;
-import lombok.Setter;
+import com.craftmend.openaudiomc.spigot.modules.voicechat.utils.ProximityGrid;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -22,8 +24,11 @@ import java.util.stream.Stream;
 
 public class PlayerPeerTicker implements Runnable {
 
-    @Setter
     private Filter<ClientConnection, Player> filter;
+    // custom filters don't have to be range based, so they get to see everyone
+    private boolean customFilter = false;
+    private final ProximityGrid proximityGrid;
+    private final CombinationChecker combinationChecker = new CombinationChecker();
 
     /**
      * The proximity ticker is what runs most of the business-logic for voice chat. It's responsible for
@@ -45,6 +50,12 @@ public class PlayerPeerTicker implements Runnable {
      * <li>If a player has N amount of "global" peers, then they should not be considered for proximity checks</li>
      * </ul>
      * <br>
+     * Candidates are taken from a {@link ProximityGrid} that gets rebuilt at the start of every tick, with cells
+     * as wide as the voice chat radius. That way we only ever stream over the neighbouring cells of a player,
+     * and the filter chain (distance, custom filters, etc) only has to run over a small set of clients.
+     * A filter that replaces the default {@link PeerFilter} through the API isn't bound to the voice chat radius,
+     * so that one still gets to look at every client.
+     * <br>
      * If you're reading this and looking to implement your own proximity checks, through the API, then please
      * be aware of the design choices made here and consider following a similar pattern.
      * Here be dragons.
@@ -53,12 +64,18 @@ public class PlayerPeerTicker implements Runnable {
     public PlayerPeerTicker(int maxDistance, PeerFilter peerFilter) {
         this.filter = peerFilter;
         this.filter.updateProperty("d", maxDistance);
+        this.proximityGrid = new ProximityGrid(maxDistance);
 
         EventApi.getInstance().registerHandler(SystemReloadEvent.class, e -> {
             this.filter.updateProperty("d", maxDistance);
         });
     }
 
+    public void setFilter(Filter<ClientConnection, Player> filter) {
+        this.filter = filter;
+        this.customFilter = !(filter instanceof PeerFilter);
+    }
+
     public void addFilter(Filter<ClientConnection, Player> extraFilter) {
         this.filter.addChild(extraFilter);
     }
@@ -74,9 +91,20 @@ public class PlayerPeerTicker implements Runnable {
                 .filter((c) -> c.getRtcSessionManager().isReady())
                 .toArray(ClientConnection[]::new);
 
-        CombinationChecker combinationChecker = new CombinationChecker();
+        // every client gets a dense index based on its position in the snapshot
+        combinationChecker.index(allClients);
 
-        for (ClientConnection client : allClients) {
+        // bucket everyone by location, so we only need to look at our direct neighbours later on
+        Location[] locations = new Location[allClients.length];
+        proximityGrid.clear();
+        for (int i = 0; i < allClients.length; i++) {
+            locations[i] = ((Player) allClients[i].getUser().getOriginal()).getLocation();
+            proximityGrid.insert(allClients[i], locations[i]);
+        }
+
+        for (int i = 0; i < allClients.length; i++) {
+            final int clientIndex = i;
+            ClientConnection client = allClients[i];
             Player player = (Player) client.getUser().getOriginal();
 
             // are we blocked?
@@ -85,9 +113,9 @@ public class PlayerPeerTicker implements Runnable {
                 // empty set, no peers for you :(
                 applicableClients = new HashSet<>();
             } else {
-                // make a copy of the allClients, except with entries where combination checks failed
+                // take everyone in our neighbouring cells, except for entries where combination checks failed
                 // order from cheap/most occurring to expensive/least occurring
-                Stream<ClientConnection> pre = Stream.of(allClients)
+                Stream<ClientConnection> pre = (customFilter ? Arrays.stream(allClients) : proximityGrid.getNeighbours(locations[i]).stream())
                         .filter((c) -> !c.getSession().isResetVc()) // don't check players that are resetting
                         .filter((c) -> c.getOwner().getUniqueId() != client.getOwner().getUniqueId()) // don't check yourself
                         // only run these checks if we're either both not moderating, or I am but the other isn't
@@ -95,7 +123,7 @@ public class PlayerPeerTicker implements Runnable {
                         // mark checked, prior to filtering, because if someone isn't
                         // applicable, then they should still be marked as checked to prevent
                         // future checks
-                        .filter((c) -> combinationChecker.getAndPutIfAbsent(client.getUser().getUniqueId(), c.getUser().getUniqueId(), false) == CombinationChecker.NOT_CHECKED) // don't check combinations that failed
+                        .filter((c) -> combinationChecker.getAndPutIfAbsent(clientIndex, combinationChecker.indexOf(c.getOwner().getUniqueId()), false) == CombinationChecker.NOT_CHECKED) // don't check combinations that failed
                         .filter(c -> !client.getRtcSessionManager().getCurrentGlobalPeers().contains(c.getOwner().getUniqueId())) // exempt global peers
                         ;
 
@@ -108,7 +136,7 @@ public class PlayerPeerTicker implements Runnable {
 
             // find players that we don't have yet
             applicableClients.forEach(peer -> {
-                combinationChecker.markChecked(client.getUser().getUniqueId(), peer.getUser().getUniqueId(), true);
+                combinationChecker.markChecked(clientIndex, combinationChecker.indexOf(peer.getOwner().getUniqueId()), true);
 
                 // am I moderating compared to this peer?
                 boolean isModerating = client.isModerating() && !peer.isModerating();
@@ -135,7 +163,7 @@ public class PlayerPeerTicker implements Runnable {
                     // allow if its resetting or if its not in the applicable list
                     .filter(uuid -> (client.getSession().isResetVc() ||
                             // if the byte is either 0 or 1, then its not checked or false
-                            combinationChecker.stateIs(client.getOwner().getUniqueId(), uuid) != CombinationChecker.CHECKED_TRUE
+                            combinationChecker.stateIs(clientIndex, combinationChecker.indexOf(uuid)) != CombinationChecker.CHECKED_TRUE
                     ))
                     // not in the global list
                     .filter(uuid -> !client.getRtcSessionManager().getCurrentGlobalPeers().contains(uuid))
@@ -27,7 +27,7 @@ public class PlayerVicinityMessageTask implements Runnable {
 
     @Override
     public void run() {
-        int minimumDistance = StorageKey.SETTINGS_VOICECHAT_VICINITY_REMINDER_RADIUS.getInt();
+        int minimumDistance = StorageKey.SETTINGS_VOICECHAT_VICINITY_REMINDER_RADIUS.getCachedInt();
 
         if (minimumDistance <= 0) {
             return;
@@ -52,7 +52,7 @@ public class PlayerVicinityMessageTask implements Runnable {
         
         // loop for everyone without voice
         for (SpigotConnection client : playersWithoutVoice) {
-            if (Duration.between(client.getLastVoiceReminderMessage(), now).getSeconds() < StorageKey.SETTINGS_VOICECHAT_VICINITY_REMINDER_INTERVAL.getInt())
+            if (Duration.between(client.getLastVoiceReminderMessage(), now).getSeconds() < StorageKey.SETTINGS_VOICECHAT_VICINITY_REMINDER_INTERVAL.getCachedInt())
                 continue; // we've already sent a message recently, or they just joined
             
             // check if we're in range of someone with voice?
@@ -1,26 +1,35 @@
 package com.craftmend.openaudiomc.spigot.modules.voicechat.tasks;
 
 import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.helpers.ClientRtcLocationUpdate;
 import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
+import com.craftmend.openaudiomc.generic.client.session.PeerLocationStream;
 import com.craftmend.openaudiomc.generic.networking.interfaces.NetworkingService;
 import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientUpdateVoiceLocations;
 import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import com.craftmend.openaudiomc.generic.storage.enums.StorageKey;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 public class TickVoicePacketQueue implements Runnable {
 
     @Override
     public void run() {
+        int precision = StorageKey.SETTINGS_VC_LOCATION_PRECISION.getCachedInt();
         for (ClientConnection client : OpenAudioMc.getService(NetworkingService.class).getClients()) {
-            if (!client.getRtcSessionManager().getLocationUpdateQueue().isEmpty()) {
-                client.sendPacket(new PacketClientUpdateVoiceLocations(
-                        new ClientVoiceUpdatePeerLocationsPayload(
-                                new HashSet<>(client.getRtcSessionManager().getLocationUpdateQueue())
-                        )
-                ));
-                client.getRtcSessionManager().getLocationUpdateQueue().clear();
-            }
+            PeerLocationStream stream = client.getRtcSessionManager().getLocationStream();
+            if (stream.isEmpty()) continue;
+
+            // only the newest location per peer, and only if it moved enough to matter
+            List<ClientRtcLocationUpdate> updates = stream.drain(precision);
+            if (updates.isEmpty()) continue;
+
+            client.sendPacket(new PacketClientUpdateVoiceLocations(
+                    new ClientVoiceUpdatePeerLocationsPayload(
+                            new LinkedHashSet<>(updates)
+                    )
+            ));
         }
     }
 }
@@ -1,49 +1,148 @@
 package com.craftmend.openaudiomc.spigot.modules.voicechat.utils;
 
+import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
+
 import java.util.*;
 
 public class CombinationChecker {
 
     /**
-     * This is a small utility class that helps with the combination of two UUIDs.
+     * This is a small utility class that keeps track of which combinations of two clients have already been checked.
      * We use it to cut down on iterations during proximity checks, where we want to
      * register AA-AA-AA>BB-BB-BB and exempt BB-BB-BB>AA-AA-AA.
-     * This implementation has some room for error, because the hashcode method of UUID
-     * does not guarantee a unique hash for each UUID, but it's good enough for our use case.
-     * https://stackoverflow.com/questions/24876188/how-big-is-the-chance-to-get-a-java-uuid-randomuuid-collision
-     * If this ever happens then well, guess some minecraft has worse odds than winning the lottery but we'll have to fix it
+     * <br>
+     * Every client in a tick snapshot gets a dense index through {@link #index(ClientConnection[])}, and pairs
+     * are stored in an open-addressing table keyed by the two (ordered) indices packed into a long. This makes
+     * lookups exact (no more hash collisions between UUIDs) and free of boxing. The table is reused across ticks,
+     * and resetting it only bumps a generation counter instead of clearing the backing arrays.
      */
 
     public static final byte NOT_CHECKED = 0;
     public static final byte CHECKED_FALSE = 1;
     public static final byte CHECKED_TRUE = 2;
 
-    private Map<Integer, Boolean> checkedCombinations = new HashMap<>();
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final Map<UUID, Integer> indices = new HashMap<>();
+
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    private byte[] states = new byte[DEFAULT_CAPACITY];
+    private int[] generations = new int[DEFAULT_CAPACITY];
+    private int generation = 1;
+    private int size = 0;
+
+    /**
+     * Start a new tick, assigning every client its position in the snapshot as index,
+     * and forgetting all combinations from the previous tick.
+     *
+     * @param snapshot the clients that take part in this tick
+     */
+    public void index(ClientConnection[] snapshot) {
+        indices.clear();
+        for (int i = 0; i < snapshot.length; i++) {
+            indices.put(snapshot[i].getOwner().getUniqueId(), i);
+        }
 
-    public byte stateIs(UUID player1, UUID player2) {
-        int hashCode = getCombinedHashCode(player1, player2);
-        Boolean v = checkedCombinations.get(hashCode);
-        if (v == null) return NOT_CHECKED;
-        return v ? CHECKED_TRUE : CHECKED_FALSE;
+        size = 0;
+        generation++;
+        if (generation == 0) {
+            // wrapped around, old stamps could become valid again
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
     }
 
-    public byte getAndPutIfAbsent(UUID player1, UUID player2, Boolean state) {
-        int hashCode = getCombinedHashCode(player1, player2);
-        Boolean v = checkedCombinations.get(hashCode);
-        if (v == null) {
-            checkedCombinations.put(hashCode, state);
-            return NOT_CHECKED;
+    /**
+     * @param player uuid of a client
+     * @return the index of this client in the current snapshot, or -1 if it isn't part of it
+     */
+    public int indexOf(UUID player) {
+        Integer index = indices.get(player);
+        return index == null ? -1 : index;
+    }
+
+    public byte stateIs(int player1, int player2) {
+        if (player1 < 0 || player2 < 0) return NOT_CHECKED;
+        int slot = find(pairKey(player1, player2));
+        return slot < 0 ? NOT_CHECKED : states[slot];
+    }
+
+    public byte getAndPutIfAbsent(int player1, int player2, boolean state) {
+        long key = pairKey(player1, player2);
+        int slot = find(key);
+        if (slot >= 0) return states[slot];
+        insert(key, state ? CHECKED_TRUE : CHECKED_FALSE);
+        return NOT_CHECKED;
+    }
+
+    public void markChecked(int player1, int player2, boolean state) {
+        long key = pairKey(player1, player2);
+        byte value = state ? CHECKED_TRUE : CHECKED_FALSE;
+        int slot = find(key);
+        if (slot >= 0) {
+            states[slot] = value;
+        } else {
+            insert(key, value);
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (generations[slot] == generation) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(long key, byte state) {
+        if ((size + 1) * 2 > keys.length) grow();
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (generations[slot] == generation) {
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        states[slot] = state;
+        generations[slot] = generation;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        byte[] oldStates = states;
+        int[] oldGenerations = generations;
+
+        keys = new long[oldKeys.length * 2];
+        states = new byte[oldKeys.length * 2];
+        generations = new int[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] != generation) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (generations[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            states[slot] = oldStates[i];
+            generations[slot] = generation;
         }
-        return v ? CHECKED_TRUE : CHECKED_FALSE;
     }
 
-    public void markChecked(UUID player1, UUID player2, Boolean state) {
-        int hashCode = getCombinedHashCode(player1, player2);
-        checkedCombinations.put(hashCode, state);
+    private static long pairKey(int player1, int player2) {
+        // order doesn't matter, A>B is the same combination as B>A
+        int low = Math.min(player1, player2);
+        int high = Math.max(player1, player2);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
     }
 
-    private int getCombinedHashCode(UUID player1, UUID player2) {
-        return player1.hashCode() ^ player2.hashCode();
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
     }
 
 }
@@ -0,0 +1,69 @@
+package com.craftmend.openaudiomc.spigot.modules.voicechat.utils;
+
+import com.craftmend.openaudiomc.generic.client.objects.ClientConnection;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the x/z plane of every world, rebuilt once per peer tick.
+ * Cells are exactly as wide as the voice chat radius, so everyone that could possibly be in range
+ * of a player is in the same cell or in one of the eight cells around it. This means that peer
+ * discovery only has to look at a handful of neighbours instead of every connected client.
+ * <br>
+ * The grid itself does not do any distance checks, it only narrows down the candidates. The regular
+ * filter chain is still responsible for the actual range, world and custom filter checks.
+ * This class is not thread safe, and is meant to be owned by a single ticker.
+ */
+public class ProximityGrid {
+
+    private final Map<String, Map<Long, List<ClientConnection>>> worlds = new HashMap<>();
+    private final int cellSize;
+
+    public ProximityGrid(int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    public void insert(ClientConnection client, Location location) {
+        if (location.getWorld() == null) return;
+        worlds.computeIfAbsent(location.getWorld().getName(), w -> new HashMap<>())
+                .computeIfAbsent(cellKey(cell(location.getBlockX()), cell(location.getBlockZ())), k -> new ArrayList<>())
+                .add(client);
+    }
+
+    public List<ClientConnection> getNeighbours(Location location) {
+        List<ClientConnection> neighbours = new ArrayList<>();
+        if (location.getWorld() == null) return neighbours;
+
+        Map<Long, List<ClientConnection>> cells = worlds.get(location.getWorld().getName());
+        if (cells == null) return neighbours;
+
+        int cellX = cell(location.getBlockX());
+        int cellZ = cell(location.getBlockZ());
+
+        for (int x = cellX - 1; x <= cellX + 1; x++) {
+            for (int z = cellZ - 1; z <= cellZ + 1; z++) {
+                List<ClientConnection> cell = cells.get(cellKey(x, z));
+                if (cell != null) neighbours.addAll(cell);
+            }
+        }
+
+        return neighbours;
+    }
+
+    private int cell(int block) {
+        return Math.floorDiv(block, cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+}
@@ -14,8 +14,6 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
-// TODO: Implement the show system to use _this_ instead of regular java timers.
-
 @NoArgsConstructor
 public class ExecutorService extends Service {
 
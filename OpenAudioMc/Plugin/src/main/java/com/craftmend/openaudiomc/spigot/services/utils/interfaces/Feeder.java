@@ -1,7 +0,0 @@
-package com.craftmend.openaudiomc.spigot.services.utils.interfaces;
-
-public interface Feeder<T> {
-
-    T feed();
-
-}
@@ -0,0 +1,240 @@
+package com.craftmend.openaudiomc.spigot.services.world;
+
+import com.craftmend.openaudiomc.generic.logging.OpenAudioLogger;
+import com.craftmend.openaudiomc.generic.service.Inject;
+import com.craftmend.openaudiomc.generic.service.Service;
+import com.craftmend.openaudiomc.spigot.OpenAudioMcSpigot;
+import com.craftmend.openaudiomc.spigot.modules.speakers.objects.ApplicableSpeaker;
+import com.craftmend.openaudiomc.spigot.services.server.ServerService;
+import com.craftmend.openaudiomc.spigot.services.server.enums.ServerVersion;
+import com.craftmend.openaudiomc.spigot.services.threading.ExecutorService;
+import com.craftmend.openaudiomc.spigot.services.world.interfaces.VoxelSource;
+import com.craftmend.openaudiomc.spigot.services.world.listeners.ChunkChangeListener;
+import com.craftmend.openaudiomc.spigot.services.world.tracing.ChunkSnapshotCache;
+import com.craftmend.openaudiomc.spigot.services.world.tracing.DDARayTracer;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Figures out how many walls are between players and speakers, without touching the world from async code.
+ *
+ * Results are cached per speaker and player block. Missing or outdated results are queued and traced
+ * on the executor thread against chunk snapshots, but only for a fixed amount of time per tick,
+ * so the cost stays the same no matter how many players and speakers there are.
+ */
+@NoArgsConstructor
+public class ObstructionService extends Service {
+
+    public static final int PENDING = -1;
+
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int SNAPSHOTS_PER_TICK = 8;
+    // how long a speaker may be held back while we wait for its first result
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    // also catches changes that don't fire events, like world edits
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long EXPIRE_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int MAX_ENTRIES = 20000;
+    private static final double EYE_HEIGHT = 1.62;
+
+    @Inject
+    private OpenAudioMcSpigot plugin;
+
+    @Inject
+    private ExecutorService executorService;
+
+    @Inject
+    private ServerService serverService;
+
+    @Getter private final ChunkSnapshotCache snapshotCache = new ChunkSnapshotCache();
+    private final Map<OcclusionKey, OcclusionEntry> entries = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> latestResults = new ConcurrentHashMap<>();
+    private final Queue<OcclusionEntry> queue = new ConcurrentLinkedQueue<>();
+    @Getter private boolean enabled = false;
+
+    @Override
+    public void onEnable() {
+        // snapshots only expose materials since 1.13
+        if (serverService.getVersion() != ServerVersion.MODERN) {
+            OpenAudioLogger.info("Obstruction tracing requires 1.13 or newer, speakers won't process obstructions");
+            return;
+        }
+
+        enabled = true;
+        plugin.registerEvents(new ChunkChangeListener(snapshotCache));
+        Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, () -> snapshotCache.captureRequested(SNAPSHOTS_PER_TICK), 1, 1);
+        executorService.getTickRunnables().add(this::processQueue);
+        executorService.getSecondRunnables().add(this::sweep);
+    }
+
+    /**
+     * Get the obstructions between a player (standing at the given location) and a speaker.
+     * This never blocks, results that aren't known yet get traced in the background.
+     *
+     * @return the amount of obstructions, or PENDING if the first trace for this spot is still in progress
+     */
+    public int getObstructions(Location player, ApplicableSpeaker speaker) {
+        if (!enabled || player.getWorld() == null) return 0;
+
+        UUID speakerId = speaker.getSpeaker().getSpeakerId();
+        OcclusionKey key = new OcclusionKey(speakerId, player.getBlockX(), player.getBlockY(), player.getBlockZ());
+        long now = System.nanoTime();
+
+        OcclusionEntry entry = entries.computeIfAbsent(key, k -> new OcclusionEntry(
+                speakerId,
+                player.getWorld().getName(),
+                // trace from where the eyes would be, so the result is the same for everyone on this block
+                k.x + 0.5, k.y + EYE_HEIGHT, k.z + 0.5,
+                Math.floor(speaker.getLocation().getX()) + 0.5,
+                Math.floor(speaker.getLocation().getY()) + 0.5,
+                Math.floor(speaker.getLocation().getZ()) + 0.5,
+                now
+        ));
+        entry.lastAccess = now;
+
+        int obstructions = entry.obstructions;
+        if (obstructions == PENDING) {
+            enqueue(entry);
+            if (now - entry.requestedAt < MAX_WAIT_NANOS) return PENDING;
+            // we're behind, go with what we knew about this speaker
+            return latestResults.getOrDefault(speakerId, 0);
+        }
+
+        if (now - entry.computedAt > REFRESH_NANOS || snapshotCache.changedSince(entry.world, entry.chunks, entry.snapshotTime)) {
+            enqueue(entry);
+        }
+        return obstructions;
+    }
+
+    public int getCachedResults() {
+        return entries.size();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void enqueue(OcclusionEntry entry) {
+        if (entry.queued.compareAndSet(false, true)) {
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Runs on the executor thread, traces until the budget for this tick is used up
+     */
+    private void processQueue() {
+        if (queue.isEmpty()) return;
+        try {
+            long deadline = System.nanoTime() + TICK_BUDGET_NANOS;
+            List<OcclusionEntry> waiting = new ArrayList<>();
+            OcclusionEntry entry;
+
+            while (System.nanoTime() < deadline && (entry = queue.poll()) != null) {
+                if (entry.removed) {
+                    entry.queued.set(false);
+                    continue;
+                }
+
+                ChunkSnapshotCache.SnapshotView view = snapshotCache.view(entry.world);
+                int obstructions = DDARayTracer.trace(entry.startX, entry.startY, entry.startZ, entry.endX, entry.endY, entry.endZ, view);
+
+                if (obstructions == VoxelSource.UNKNOWN) {
+                    // the missing chunks have been requested, try again once they're there
+                    waiting.add(entry);
+                    continue;
+                }
+
+                entry.chunks = view.getChunks();
+                entry.snapshotTime = view.getOldestCapture();
+                entry.computedAt = System.nanoTime();
+                entry.obstructions = obstructions;
+                entry.queued.set(false);
+                latestResults.put(entry.speakerId, obstructions);
+            }
+
+            queue.addAll(waiting);
+        } catch (Exception e) {
+            OpenAudioLogger.error(e, "Failed to trace speaker obstructions");
+        }
+    }
+
+    private void sweep() {
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> {
+                if (now - entry.lastAccess <= EXPIRE_NANOS) return false;
+                entry.removed = true;
+                return true;
+            });
+
+            if (entries.size() > MAX_ENTRIES) {
+                List<Map.Entry<OcclusionKey, OcclusionEntry>> oldest = new ArrayList<>(entries.entrySet());
+                oldest.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+                for (int i = 0; i < oldest.size() - MAX_ENTRIES; i++) {
+                    oldest.get(i).getValue().removed = true;
+                    entries.remove(oldest.get(i).getKey());
+                }
+            }
+
+            Set<UUID> speakers = new HashSet<>();
+            for (OcclusionKey key : entries.keySet()) {
+                speakers.add(key.speaker);
+            }
+            latestResults.keySet().retainAll(speakers);
+
+            snapshotCache.sweep(now);
+        } catch (Exception e) {
+            OpenAudioLogger.error(e, "Failed to clean up obstruction results");
+        }
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class OcclusionKey {
+        private final UUID speaker;
+        private final int x;
+        private final int y;
+        private final int z;
+    }
+
+    private static class OcclusionEntry {
+        private final UUID speakerId;
+        private final String world;
+        private final double startX, startY, startZ;
+        private final double endX, endY, endZ;
+        private final long requestedAt;
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+
+        private volatile int obstructions = PENDING;
+        private volatile long computedAt;
+        private volatile long snapshotTime;
+        private volatile long[] chunks;
+        private volatile long lastAccess;
+        private volatile boolean removed = false;
+
+        private OcclusionEntry(UUID speakerId, String world, double startX, double startY, double startZ, double endX, double endY, double endZ, long requestedAt) {
+            this.speakerId = speakerId;
+            this.world = world;
+            this.startX = startX;
+            this.startY = startY;
+            this.startZ = startZ;
+            this.endX = endX;
+            this.endY = endY;
+            this.endZ = endZ;
+            this.requestedAt = requestedAt;
+            this.lastAccess = requestedAt;
+        }
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.craftmend.openaudiomc.spigot.services.world.interfaces;
+
+public interface VoxelSource {
+
+    int OPEN = 0;
+    int SOLID = 1;
+    // the block isn't available (yet), the trace should be retried later
+    int UNKNOWN = -1;
+
+    int stateAt(int x, int y, int z);
+
+}
@@ -0,0 +1,230 @@
+package com.craftmend.openaudiomc.spigot.services.world.tracing;
+
+import com.craftmend.openaudiomc.spigot.services.world.interfaces.VoxelSource;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only copies of the chunks that obstruction traces need, so those can run off the main thread.
+ * Traces ask for chunks they're missing, which then get captured a few at a time on the main thread.
+ * Block changes drop the snapshot of their chunk and remember when that happened, so results
+ * that were traced against an older copy can tell that they're outdated.
+ */
+public class ChunkSnapshotCache {
+
+    private static final int MAX_SNAPSHOTS = 256;
+    private static final long SNAPSHOT_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // results get refreshed within this time anyway, so older changes don't matter anymore
+    private static final long CHANGE_RETENTION_NANOS = TimeUnit.SECONDS.toNanos(90);
+    private static final boolean[] SOLID_MATERIALS;
+
+    static {
+        Material[] materials = Material.values();
+        SOLID_MATERIALS = new boolean[materials.length];
+        for (Material material : materials) {
+            SOLID_MATERIALS[material.ordinal()] = material.isSolid();
+        }
+    }
+
+    private final Map<String, WorldSnapshots> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Capture some of the requested chunks, must be called from the main thread
+     */
+    public void captureRequested(int max) {
+        int captured = 0;
+        for (Map.Entry<String, WorldSnapshots> entry : worlds.entrySet()) {
+            WorldSnapshots snapshots = entry.getValue();
+            if (snapshots.requested.isEmpty()) continue;
+
+            World world = Bukkit.getWorld(entry.getKey());
+            Iterator<Long> iterator = snapshots.requested.iterator();
+            while (iterator.hasNext() && captured < max) {
+                long key = iterator.next();
+                iterator.remove();
+
+                int chunkX = (int) (key >> 32);
+                int chunkZ = (int) key;
+                ChunkSnapshot snapshot = null;
+                // never load chunks for this, unloaded chunks are just treated as open space
+                if (world != null && world.isChunkLoaded(chunkX, chunkZ)) {
+                    snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+                }
+
+                int minHeight = world == null ? 0 : minHeight(world);
+                int maxHeight = world == null ? 256 : world.getMaxHeight();
+                snapshots.snapshots.put(key, new Snapshot(snapshot, minHeight, maxHeight, System.nanoTime()));
+                captured++;
+            }
+
+            if (captured >= max) return;
+        }
+    }
+
+    /**
+     * A block in this chunk changed, must be called from the main thread
+     */
+    public void invalidate(String world, int chunkX, int chunkZ) {
+        WorldSnapshots snapshots = worlds.get(world);
+        if (snapshots == null) return;
+        long key = key(chunkX, chunkZ);
+        snapshots.snapshots.remove(key);
+        snapshots.changes.put(key, System.nanoTime());
+    }
+
+    /**
+     * The chunk unloaded, its copy is still correct but there's no point in keeping it around
+     */
+    public void release(String world, int chunkX, int chunkZ) {
+        WorldSnapshots snapshots = worlds.get(world);
+        if (snapshots == null) return;
+        snapshots.snapshots.remove(key(chunkX, chunkZ));
+    }
+
+    public void forget(String world) {
+        worlds.remove(world);
+    }
+
+    /**
+     * @return true if any of the chunks changed after the given moment
+     */
+    public boolean changedSince(String world, long[] chunks, long since) {
+        WorldSnapshots snapshots = worlds.get(world);
+        if (snapshots == null || chunks == null) return false;
+        for (long chunk : chunks) {
+            Long changedAt = snapshots.changes.get(chunk);
+            if (changedAt != null && changedAt >= since) return true;
+        }
+        return false;
+    }
+
+    public SnapshotView view(String world) {
+        return new SnapshotView(worlds.computeIfAbsent(world, w -> new WorldSnapshots()));
+    }
+
+    public void sweep(long now) {
+        int total = 0;
+        for (WorldSnapshots snapshots : worlds.values()) {
+            snapshots.snapshots.values().removeIf(snapshot -> now - snapshot.lastUsed > SNAPSHOT_IDLE_NANOS);
+            snapshots.changes.values().removeIf(changedAt -> now - changedAt > CHANGE_RETENTION_NANOS);
+            total += snapshots.snapshots.size();
+        }
+
+        if (total <= MAX_SNAPSHOTS) return;
+
+        // still too many, drop the ones that haven't been used for the longest time
+        List<Map.Entry<Long, Snapshot>> all = new ArrayList<>();
+        Map<Map.Entry<Long, Snapshot>, WorldSnapshots> owners = new IdentityHashMap<>();
+        for (WorldSnapshots snapshots : worlds.values()) {
+            for (Map.Entry<Long, Snapshot> entry : snapshots.snapshots.entrySet()) {
+                all.add(entry);
+                owners.put(entry, snapshots);
+            }
+        }
+        all.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+        for (int i = 0; i < all.size() - MAX_SNAPSHOTS; i++) {
+            Map.Entry<Long, Snapshot> entry = all.get(i);
+            owners.get(entry).snapshots.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public int getSnapshotCount() {
+        int total = 0;
+        for (WorldSnapshots snapshots : worlds.values()) {
+            total += snapshots.snapshots.size();
+        }
+        return total;
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int minHeight(World world) {
+        // worlds only go below zero since 1.18, which is newer than the api we compile against
+        try {
+            return (int) World.class.getMethod("getMinHeight").invoke(world);
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+
+    private static class WorldSnapshots {
+        private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+        private final Map<Long, Long> changes = new ConcurrentHashMap<>();
+        private final Set<Long> requested = ConcurrentHashMap.newKeySet();
+    }
+
+    private static class Snapshot {
+        // null if the chunk wasn't loaded
+        private final ChunkSnapshot snapshot;
+        private final int minHeight;
+        private final int maxHeight;
+        private final long capturedAt;
+        private volatile long lastUsed;
+
+        private Snapshot(ChunkSnapshot snapshot, int minHeight, int maxHeight, long capturedAt) {
+            this.snapshot = snapshot;
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
+            this.capturedAt = capturedAt;
+            this.lastUsed = capturedAt;
+        }
+
+        private int stateAt(int x, int y, int z) {
+            if (snapshot == null || y < minHeight || y >= maxHeight) return VoxelSource.OPEN;
+            return SOLID_MATERIALS[snapshot.getBlockType(x & 15, y, z & 15).ordinal()] ? VoxelSource.SOLID : VoxelSource.OPEN;
+        }
+    }
+
+    /**
+     * The blocks of a single world as seen by one trace. Keeps track of which chunks it read, and how old the oldest of those was.
+     */
+    public static class SnapshotView implements VoxelSource {
+
+        private final WorldSnapshots world;
+        private final List<Long> chunks = new ArrayList<>(4);
+        @Getter private long oldestCapture = Long.MAX_VALUE;
+        private long lastKey;
+        private Snapshot last;
+
+        private SnapshotView(WorldSnapshots world) {
+            this.world = world;
+        }
+
+        @Override
+        public int stateAt(int x, int y, int z) {
+            long key = key(x >> 4, z >> 4);
+            if (last == null || key != lastKey) {
+                Snapshot snapshot = world.snapshots.get(key);
+                if (snapshot == null) {
+                    world.requested.add(key);
+                    return UNKNOWN;
+                }
+
+                snapshot.lastUsed = System.nanoTime();
+                oldestCapture = Math.min(oldestCapture, snapshot.capturedAt);
+                if (!chunks.contains(key)) chunks.add(key);
+                last = snapshot;
+                lastKey = key;
+            }
+            return last.stateAt(x, y, z);
+        }
+
+        public long[] getChunks() {
+            long[] keys = new long[chunks.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = chunks.get(i);
+            }
+            return keys;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.craftmend.openaudiomc.spigot.services.world.tracing;
+
+import com.craftmend.openaudiomc.spigot.services.world.Vector3;
+import com.craftmend.openaudiomc.spigot.services.world.interfaces.IRayTracer;
+import com.craftmend.openaudiomc.spigot.services.world.interfaces.VoxelSource;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Exact voxel traversal (Amanatides & Woo), visits every block the line passes through exactly once and in order,
+ * so walls are counted as the transitions from open space into something solid.
+ *
+ * The IRayTracer implementation reads the live world, so it may only be used from the main thread.
+ * Async code should trace against snapshots through the ObstructionService instead.
+ */
+public class DDARayTracer implements IRayTracer {
+
+    @Override
+    public int obstructionsBetweenLocations(Location start, Vector3 end) {
+        World world = start.getWorld();
+        return trace(
+                start.getX(), start.getY(), start.getZ(),
+                end.getX(), end.getY(), end.getZ(),
+                (x, y, z) -> world.getBlockAt(x, y, z).getType().isSolid() ? VoxelSource.SOLID : VoxelSource.OPEN
+        );
+    }
+
+    /**
+     * Walk from start to end. The blocks containing the start and end points aren't counted,
+     * those are the listener and the source itself.
+     *
+     * @return the amount of obstructions, or VoxelSource.UNKNOWN if the source couldn't provide a block
+     */
+    public static int trace(double startX, double startY, double startZ, double endX, double endY, double endZ, VoxelSource source) {
+        int x = floor(startX);
+        int y = floor(startY);
+        int z = floor(startZ);
+        int targetX = floor(endX);
+        int targetY = floor(endY);
+        int targetZ = floor(endZ);
+
+        double dx = endX - startX;
+        double dy = endY - startY;
+        double dz = endZ - startZ;
+
+        int stepX = Double.compare(dx, 0);
+        int stepY = Double.compare(dy, 0);
+        int stepZ = Double.compare(dz, 0);
+
+        // distance (in ray length, 0 to 1) between two block borders on each axis
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dx);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dy);
+        double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1 / dz);
+
+        // distance to the first border on each axis
+        double maxX = firstBorder(startX, x, stepX, deltaX);
+        double maxY = firstBorder(startY, y, stepY, deltaY);
+        double maxZ = firstBorder(startZ, z, stepZ, deltaZ);
+
+        // every step crosses exactly one border, so this is the exact length of the walk
+        int steps = Math.abs(targetX - x) + Math.abs(targetY - y) + Math.abs(targetZ - z);
+
+        int obstructions = 0;
+        boolean wasSolid = false;
+        // keep walking when a block is missing, so the source learns about everything it lacks in one go
+        boolean complete = true;
+
+        for (int i = 0; i < steps; i++) {
+            if (maxX < maxY) {
+                if (maxX < maxZ) {
+                    x += stepX;
+                    maxX += deltaX;
+                } else {
+                    z += stepZ;
+                    maxZ += deltaZ;
+                }
+            } else {
+                if (maxY < maxZ) {
+                    y += stepY;
+                    maxY += deltaY;
+                } else {
+                    z += stepZ;
+                    maxZ += deltaZ;
+                }
+            }
+
+            if (x == targetX && y == targetY && z == targetZ) break;
+
+            int state = source.stateAt(x, y, z);
+            if (state == VoxelSource.UNKNOWN) {
+                complete = false;
+                continue;
+            }
+
+            boolean isSolid = state == VoxelSource.SOLID;
+            if (isSolid && !wasSolid) {
+                obstructions++;
+            }
+            wasSolid = isSolid;
+        }
+
+        return complete ? obstructions : VoxelSource.UNKNOWN;
+    }
+
+    private static double firstBorder(double start, int block, int step, double delta) {
+        if (step > 0) return (block + 1 - start) * delta;
+        if (step < 0) return (start - block) * delta;
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static int floor(double value) {
+        int floored = (int) value;
+        return value < floored ? floored - 1 : floored;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.craftmend.openaudiomc.generic.client.session;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+/**
+ * Replays the voice chat trace from {@link PeerLocationStreamTest} at server scale and reports how much
+ * location streams save. Runs with the benchmark task, bench.peers.players and bench.peers.ticks set the size.
+ */
+public class PeerLocationStreamBenchmark extends TestCase {
+
+    private static final int PLAYERS = Integer.getInteger("bench.peers.players", 200);
+    private static final int TICKS = Integer.getInteger("bench.peers.ticks", 20 * 60);
+
+    @Test
+    public void testTrace() {
+        PeerLocationStreamTest.Trace trace = PeerLocationStreamTest.replay(PLAYERS, TICKS, PLAYERS);
+
+        System.out.println(String.format("peer locations, %d players for %d ticks", PLAYERS, TICKS));
+        System.out.println(String.format("  every sample  %8d packets %9d locations %11d bytes json",
+                trace.beforePackets, trace.beforeUpdates, trace.beforeBytes));
+        System.out.println(String.format("  coalesced     %8d packets %9d locations %11d bytes json, %d compact, %d with deltas",
+                trace.afterPackets, trace.afterUpdates, trace.jsonBytes, trace.compactBytes, trace.deltaBytes));
+        System.out.println(String.format("  saved         %7.1f%% of the packets, %.1f%% of the bytes",
+                share(trace.beforePackets - trace.afterPackets, trace.beforePackets), share(trace.beforeBytes - trace.deltaBytes, trace.beforeBytes)));
+
+        assertTrue(trace.deltaBytes < trace.beforeBytes);
+    }
+
+    private static double share(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+}
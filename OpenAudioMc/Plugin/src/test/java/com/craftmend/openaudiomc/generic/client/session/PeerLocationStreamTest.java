@@ -0,0 +1,191 @@
+package com.craftmend.openaudiomc.generic.client.session;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.helpers.ClientRtcLocationUpdate;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.io.CompactPacketCodec;
+import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientUpdateVoiceLocations;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Replays a synthetic voice chat trace, and compares what every client would have been sent before location
+ * streams (every sample, as json) against what gets sent now (coalesced, as json and in the compact format).
+ * Players are in groups of 10 that hear each other. About a third of them stand still, the rest walk around,
+ * stopping and turning every now and then. Peer locations get offered every tick and flushed every 3 ticks,
+ * like the voice chat tasks do. {@link PeerLocationStreamBenchmark} replays a bigger trace and reports the numbers.
+ */
+public class PeerLocationStreamTest extends TestCase {
+
+    private static final int GROUP_SIZE = 10;
+    private static final int FLUSH_INTERVAL = 3;
+    private static final int PRECISION_CENTIMETERS = 10;
+
+    @Test
+    public void testCoalescesAndQuantizes() {
+        PeerLocationStream stream = new PeerLocationStream();
+        stream.offer(new ClientRtcLocationUpdate("a", 10.01, 64, 10, 0));
+        stream.offer(new ClientRtcLocationUpdate("a", 10.5, 64, 10, 0));
+        stream.offer(new ClientRtcLocationUpdate("b", 0, 64, 0, 0));
+
+        // only the newest location of a peer is kept, and the first one is a keyframe
+        List<ClientRtcLocationUpdate> first = stream.drain(PRECISION_CENTIMETERS);
+        assertEquals(2, first.size());
+        ClientRtcLocationUpdate a = first.stream().filter(update -> update.getStreamKey().equals("a")).findFirst().get();
+        assertTrue(a.isKeyframe());
+        assertEquals(10.5, a.getX());
+        assertEquals(336, a.getQuantizedX());
+
+        // too small to matter, unless the obstructions change
+        stream.offer(new ClientRtcLocationUpdate("a", 10.52, 64, 10, 0));
+        stream.offer(new ClientRtcLocationUpdate("b", 0.01, 64, 0, 1));
+        List<ClientRtcLocationUpdate> second = stream.drain(PRECISION_CENTIMETERS);
+        assertEquals(1, second.size());
+        assertEquals("b", second.get(0).getStreamKey());
+        assertFalse(second.get(0).isKeyframe());
+
+        // deltas are relative to what the client last got, not to the skipped location
+        stream.offer(new ClientRtcLocationUpdate("a", 11, 64, 10, 0));
+        ClientRtcLocationUpdate moved = stream.drain(PRECISION_CENTIMETERS).get(0);
+        assertFalse(moved.isKeyframe());
+        assertEquals(PeerLocationStream.STEPS_PER_BLOCK / 2, moved.getDeltaX());
+        assertEquals(0, moved.getDeltaZ());
+
+        // forgotten streams start with a keyframe again
+        stream.forget("a");
+        stream.offer(new ClientRtcLocationUpdate("a", 11, 64, 10, 0));
+        assertTrue(stream.drain(PRECISION_CENTIMETERS).get(0).isKeyframe());
+        assertEquals(1, stream.getSkipped());
+    }
+
+    @Test
+    public void testSyntheticTrace() {
+        Trace trace = replay(100, 20 * 30, 100);
+
+        // listeners whose peers all stand still don't get anything at all
+        assertTrue(trace.afterPackets < trace.beforePackets);
+        assertTrue(trace.afterUpdates < trace.beforeUpdates);
+        assertTrue(trace.jsonBytes < trace.beforeBytes);
+        assertTrue(trace.compactBytes < trace.jsonBytes);
+        assertTrue(trace.deltaBytes < trace.compactBytes);
+    }
+
+    static Trace replay(int players, int ticks, long seed) {
+        Random random = new Random(seed);
+        Walker[] walkers = new Walker[players];
+        for (int i = 0; i < walkers.length; i++) {
+            walkers[i] = new Walker(random, new UUID(seed, i).toString().replace("-", ""), i % 3 == 0);
+        }
+
+        CompactPacketCodec compact = new CompactPacketCodec();
+        CompactPacketCodec delta = new CompactPacketCodec();
+        delta.setLocationDeltas(true);
+
+        PeerLocationStream[] streams = new PeerLocationStream[players];
+        List<List<ClientRtcLocationUpdate>> backlog = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            streams[i] = new PeerLocationStream();
+            backlog.add(new ArrayList<>());
+        }
+
+        Trace trace = new Trace();
+        for (int tick = 1; tick <= ticks; tick++) {
+            for (Walker walker : walkers) walker.tick(random);
+
+            for (int listener = 0; listener < players; listener++) {
+                int group = listener - listener % GROUP_SIZE;
+                for (int peer = group; peer < Math.min(group + GROUP_SIZE, players); peer++) {
+                    if (peer == listener) continue;
+                    backlog.get(listener).add(walkers[peer].update());
+                    streams[listener].offer(walkers[peer].update());
+                }
+            }
+
+            if (tick % FLUSH_INTERVAL != 0) continue;
+
+            for (int listener = 0; listener < players; listener++) {
+                UUID client = new UUID(seed, listener);
+                // every sample went out, with the exact location
+                List<ClientRtcLocationUpdate> samples = backlog.get(listener);
+                if (!samples.isEmpty()) {
+                    trace.beforePackets++;
+                    trace.beforeUpdates += samples.size();
+                    trace.beforeBytes += json(packet(client, samples));
+                    samples.clear();
+                }
+
+                List<ClientRtcLocationUpdate> updates = streams[listener].drain(PRECISION_CENTIMETERS);
+                if (updates.isEmpty()) continue;
+                AbstractPacket packet = packet(client, updates);
+                trace.afterPackets++;
+                trace.afterUpdates += updates.size();
+                trace.jsonBytes += json(packet);
+                trace.compactBytes += compact.encode(packet).length;
+                trace.deltaBytes += delta.encode(packet).length;
+            }
+        }
+        return trace;
+    }
+
+    private static AbstractPacket packet(UUID client, Collection<ClientRtcLocationUpdate> updates) {
+        AbstractPacket packet = new PacketClientUpdateVoiceLocations(new ClientVoiceUpdatePeerLocationsPayload(new LinkedHashSet<>(updates)));
+        packet.setClient(client);
+        return packet;
+    }
+
+    private static long json(AbstractPacket packet) {
+        return OpenAudioMc.getGson().toJson(packet).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * What the clients of a trace were sent, without location streams (before) and with them (after)
+     */
+    static class Trace {
+        long beforePackets, beforeUpdates, beforeBytes;
+        long afterPackets, afterUpdates, jsonBytes, compactBytes, deltaBytes;
+    }
+
+    private static class Walker {
+        private static final double WALK_SPEED = 4.317 / 20;
+
+        private final String streamKey;
+        private final boolean idle;
+        private double x, y, z;
+        private double heading;
+        private boolean walking;
+
+        private Walker(Random random, String streamKey, boolean idle) {
+            this.streamKey = streamKey;
+            this.idle = idle;
+            this.x = random.nextDouble() * 2000 - 1000;
+            this.y = 64;
+            this.z = random.nextDouble() * 2000 - 1000;
+            this.heading = random.nextDouble() * Math.PI * 2;
+            this.walking = !idle;
+        }
+
+        private void tick(Random random) {
+            if (idle) return;
+
+            // stop for a bit, or get going again
+            if (random.nextInt(100) < 2) walking = !walking;
+            if (!walking) return;
+
+            heading += (random.nextDouble() - 0.5) * 0.2;
+            x += Math.cos(heading) * WALK_SPEED;
+            z += Math.sin(heading) * WALK_SPEED;
+            // the occasional step up or down
+            if (random.nextInt(40) == 0) y += random.nextBoolean() ? 1 : -1;
+        }
+
+        private ClientRtcLocationUpdate update() {
+            // a new instance every time, like the peer ticker creates them
+            return new ClientRtcLocationUpdate(streamKey, x, y, z, 0);
+        }
+    }
+
+}
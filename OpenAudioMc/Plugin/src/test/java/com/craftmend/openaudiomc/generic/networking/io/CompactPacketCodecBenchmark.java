@@ -0,0 +1,71 @@
+package com.craftmend.openaudiomc.generic.networking.io;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Encoding time and size per packet, json against the compact format. Only runs through the benchmark task,
+ * packet count and rounds can be changed with bench.codec.packets and bench.codec.rounds.
+ */
+public class CompactPacketCodecBenchmark extends TestCase {
+
+    private static final int PACKETS = Integer.getInteger("bench.codec.packets", 2000);
+    private static final int ROUNDS = Integer.getInteger("bench.codec.rounds", 5);
+
+    private final CompactPacketCodec codec = new CompactPacketCodec();
+
+    @Test
+    public void testEncoding() {
+        Random random = new Random(PACKETS);
+        measure("player location", CompactPacketCodecTest.playerLocations(random, PACKETS));
+        measure("speaker position", CompactPacketCodecTest.speakerPositions(random, PACKETS));
+        measure("peer locations (10)", CompactPacketCodecTest.peerLocations(random, PACKETS));
+        measure("volume (json body)", CompactPacketCodecTest.volumes(random, PACKETS));
+    }
+
+    private void measure(String name, AbstractPacket[] packets) {
+        // the first pass pays for class loading and compilation, don't count it
+        encodeJson(packets);
+        encodeCompact(packets);
+
+        long jsonBytes = 0;
+        long compactBytes = 0;
+        long jsonNanos = 0;
+        long compactNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            jsonBytes = encodeJson(packets);
+            jsonNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            compactBytes = encodeCompact(packets);
+            compactNanos += System.nanoTime() - start;
+        }
+
+        long encoded = (long) packets.length * ROUNDS;
+        System.out.println(String.format("%-20s json %4d bytes %6dns, compact %4d bytes %6dns (per packet)",
+                name, jsonBytes / packets.length, jsonNanos / encoded, compactBytes / packets.length, compactNanos / encoded));
+    }
+
+    private static long encodeJson(AbstractPacket[] packets) {
+        long bytes = 0;
+        for (AbstractPacket packet : packets) {
+            bytes += OpenAudioMc.getGson().toJson(packet).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    private long encodeCompact(AbstractPacket[] packets) {
+        long bytes = 0;
+        for (AbstractPacket packet : packets) {
+            bytes += codec.encode(packet).length;
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.craftmend.openaudiomc.generic.networking.io;
+
+import com.craftmend.openaudiomc.OpenAudioMc;
+import com.craftmend.openaudiomc.generic.client.helpers.ClientRtcLocationUpdate;
+import com.craftmend.openaudiomc.generic.networking.abstracts.AbstractPacket;
+import com.craftmend.openaudiomc.generic.networking.abstracts.PacketChannel;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateLocation;
+import com.craftmend.openaudiomc.generic.networking.packets.client.speakers.PacketClientUpdateSpeakerPosition;
+import com.craftmend.openaudiomc.generic.networking.packets.client.ui.PacketClientSetVolume;
+import com.craftmend.openaudiomc.generic.networking.packets.client.voice.PacketClientUpdateVoiceLocations;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientPlayerLocationPayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.speakers.ClientSpeakerPositionUpdatePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.ui.ClientVolumePayload;
+import com.craftmend.openaudiomc.generic.networking.payloads.client.voice.ClientVoiceUpdatePeerLocationsPayload;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Checks that packets survive a trip through the compact format, and that it's actually smaller than the json
+ * it replaces. Encoding speed is measured by {@link CompactPacketCodecBenchmark}.
+ */
+public class CompactPacketCodecTest extends TestCase {
+
+    private static final UUID CLIENT = new UUID(42, 0);
+
+    private final CompactPacketCodec codec = new CompactPacketCodec();
+
+    @Test
+    public void testSmallerThanJson() {
+        Random random = new Random(7);
+        assertSmaller("player location", playerLocations(random, 100));
+        assertSmaller("speaker position", speakerPositions(random, 100));
+        assertSmaller("peer locations", peerLocations(random, 100));
+        // no hand written body, but the class name and channel name still don't have to go over the wire
+        assertSmaller("volume", volumes(random, 100));
+    }
+
+    @Test
+    public void testDecodeRoundTrip() throws Exception {
+        AbstractPacket location = codec.decode(codec.encode(withClient(new PacketClientUpdateLocation(
+                new ClientPlayerLocationPayload(1.5, 64, -20.25, 10, 270)
+        ))));
+        assertEquals(PacketChannel.CLIENT_OUT_PLAYER_LOCATION, location.getPacketChannel());
+        assertEquals(CLIENT, location.getClient());
+        ClientPlayerLocationPayload locationPayload = (ClientPlayerLocationPayload) location.getData();
+        assertEquals(-20.25, locationPayload.getZ());
+        assertEquals(270, locationPayload.getYaw());
+
+        AbstractPacket speaker = codec.decode(codec.encode(withClient(new PacketClientUpdateSpeakerPosition(
+                new ClientSpeakerPositionUpdatePayload(3, 4, 5, "speaker")
+        ))));
+        assertEquals("speaker", ((ClientSpeakerPositionUpdatePayload) speaker.getData()).getSpeakerId());
+        assertEquals(4.0, ((ClientSpeakerPositionUpdatePayload) speaker.getData()).getY());
+
+        Set<ClientRtcLocationUpdate> updates = new HashSet<>();
+        updates.add(new ClientRtcLocationUpdate("stream", 7, 8, 9, 2));
+        AbstractPacket peers = codec.decode(codec.encode(withClient(new PacketClientUpdateVoiceLocations(
+                new ClientVoiceUpdatePeerLocationsPayload(updates)
+        ))));
+        ClientRtcLocationUpdate update = ((ClientVoiceUpdatePeerLocationsPayload) peers.getData()).getUpdateSet().iterator().next();
+        assertEquals("stream", update.getStreamKey());
+        assertEquals(9.0, update.getZ());
+        assertEquals(2, update.getObstructions());
+
+        AbstractPacket volume = codec.decode(codec.encode(withClient(new PacketClientSetVolume(42))));
+        assertEquals(PacketChannel.CLIENT_OUT_SET_VOLUME, volume.getPacketChannel());
+        assertEquals(OpenAudioMc.getGson().toJson(new ClientVolumePayload(42)), OpenAudioMc.getGson().toJson(volume.getData()));
+    }
+
+    private void assertSmaller(String name, AbstractPacket[] packets) {
+        long json = 0;
+        long compact = 0;
+        for (AbstractPacket packet : packets) {
+            json += OpenAudioMc.getGson().toJson(packet).getBytes(StandardCharsets.UTF_8).length;
+            byte[] frame = codec.encode(packet);
+            assertNotNull(name + " can't be encoded", frame);
+            compact += frame.length;
+        }
+        assertTrue(name + " should be smaller in the compact format (" + compact + " vs " + json + " bytes)", compact < json);
+    }
+
+    static AbstractPacket[] playerLocations(Random random, int count) {
+        AbstractPacket[] packets = new AbstractPacket[count];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = withClient(new PacketClientUpdateLocation(new ClientPlayerLocationPayload(
+                    coordinate(random), 64 + random.nextDouble() * 10, coordinate(random),
+                    random.nextInt(180) - 90, random.nextInt(360)
+            )));
+        }
+        return packets;
+    }
+
+    static AbstractPacket[] speakerPositions(Random random, int count) {
+        AbstractPacket[] packets = new AbstractPacket[count];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = withClient(new PacketClientUpdateSpeakerPosition(new ClientSpeakerPositionUpdatePayload(
+                    coordinate(random), 64 + random.nextInt(10), coordinate(random), new UUID(random.nextLong(), i).toString()
+            )));
+        }
+        return packets;
+    }
+
+    static AbstractPacket[] peerLocations(Random random, int count) {
+        AbstractPacket[] packets = new AbstractPacket[count];
+        for (int i = 0; i < packets.length; i++) {
+            // a player in a crowd of about 10 peers
+            Set<ClientRtcLocationUpdate> updates = new HashSet<>();
+            for (int peer = 0; peer < 10; peer++) {
+                updates.add(new ClientRtcLocationUpdate(
+                        new UUID(42, peer).toString().replace("-", ""),
+                        coordinate(random), 64 + random.nextDouble() * 10, coordinate(random),
+                        random.nextInt(3)
+                ));
+            }
+            packets[i] = withClient(new PacketClientUpdateVoiceLocations(new ClientVoiceUpdatePeerLocationsPayload(updates)));
+        }
+        return packets;
+    }
+
+    static AbstractPacket[] volumes(Random random, int count) {
+        AbstractPacket[] packets = new AbstractPacket[count];
+        for (int i = 0; i < packets.length; i++) {
+            packets[i] = withClient(new PacketClientSetVolume(random.nextInt(101)));
+        }
+        return packets;
+    }
+
+    private static AbstractPacket withClient(AbstractPacket packet) {
+        packet.setClient(CLIENT);
+        return packet;
+    }
+
+    private static double coordinate(Random random) {
+        return (random.nextDouble() - 0.5) * 20000;
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.craftmend.openaudiomc.generic.rest;
+
+import com.craftmend.openaudiomc.generic.rest.response.AbstractRestResponse;
+import com.craftmend.openaudiomc.generic.rest.response.NoResponse;
+import com.craftmend.openaudiomc.generic.rest.response.SectionError;
+import com.craftmend.openaudiomc.generic.rest.routes.Endpoint;
+import com.craftmend.openaudiomc.generic.rest.types.ClaimCodeResponse;
+import junit.framework.TestCase;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs rest requests against a local mock server, to check which responses are retried, what the caller ends up
+ * with when we give up, and how many attempts fit in the call timeout.
+ */
+public class RestRequestTest extends TestCase {
+
+    private static final Endpoint ENDPOINT = Endpoint.LOOPBACK_CHECK;
+
+    private MockWebServer server;
+    private HttpClientService httpClientService;
+
+    @Override
+    protected void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        httpClientService = new HttpClientService();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        httpClientService.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void testRetriesGatewayErrors() {
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(504));
+        server.enqueue(new MockResponse().setBody("{\"response\":{\"claimUrl\":\"https://example.com/claim\"}}"));
+
+        RestRequest<ClaimCodeResponse> request = request(ClaimCodeResponse.class).run();
+
+        assertFalse(request.hasError());
+        assertEquals("https://example.com/claim", request.getResponse().getClaimUrl());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, retries());
+    }
+
+    @Test
+    public void testGivesUpAfterRetries() {
+        for (int i = 0; i < 3; i++) {
+            // not json, so this would blow up if we tried to parse it
+            server.enqueue(new MockResponse().setResponseCode(503).setBody("<html>down for maintenance</html>"));
+        }
+
+        RestRequest<NoResponse> request = request(NoResponse.class).run();
+
+        assertEquals(SectionError.SERVER_ERROR, request.getError());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, retries());
+    }
+
+    @Test
+    public void testInternalErrorIsNotRetried() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        RestRequest<NoResponse> request = request(NoResponse.class).run();
+
+        assertEquals(SectionError.SERVER_ERROR, request.getError());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, retries());
+    }
+
+    @Test
+    public void testNotFound() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        assertEquals(SectionError.NOT_FOUND, request(NoResponse.class).run().getError());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testPostIsNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        RestRequest<NoResponse> request = request(NoResponse.class)
+                .withPostJsonObject(Collections.singletonMap("key", "value"))
+                .run();
+
+        assertEquals(SectionError.SERVER_ERROR, request.getError());
+        assertEquals(1, server.getRequestCount());
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("POST", recorded.getMethod());
+        assertEquals("{\"key\":\"value\"}", recorded.getBody().readUtf8());
+    }
+
+    @Test
+    public void testConnectionFailures() throws Exception {
+        RestRequest<NoResponse> request = request(NoResponse.class);
+        // nothing listening anymore, so every attempt fails with an IOException
+        server.shutdown();
+
+        request.run();
+
+        assertEquals(SectionError.TIMEOUT, request.getError());
+        assertEquals(2, retries());
+    }
+
+    @Test
+    public void testRetriesStayWithinTheCallTimeout() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(5, TimeUnit.SECONDS));
+        }
+
+        // a one second timeout gives the whole request two seconds, retries included. The first attempt times out
+        // after a second, the retry gets what's left of the two, and there's no time left for a third one
+        RestRequest<NoResponse> request = request(NoResponse.class).setTimeout(1).run();
+
+        assertEquals(SectionError.TIMEOUT, request.getError());
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, retries());
+    }
+
+    @Test
+    public void testBackoff() {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            long max = 0;
+            for (int i = 0; i < 1000; i++) {
+                long delay = RestRequest.backoffMillis(attempt);
+                assertTrue(delay >= 1);
+                assertTrue(delay <= 250L << attempt);
+                max = Math.max(max, delay);
+            }
+            // full jitter, but the window has to grow with every attempt
+            assertTrue(max > (250L << attempt) / 2);
+        }
+    }
+
+    @Test
+    public void testQueryEncoding() throws Exception {
+        String value = "a b&c=d/é?#";
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        RestRequest<NoResponse> request = request(NoResponse.class)
+                .setQuery("name", value)
+                .setQuery("other", "plain");
+
+        HttpUrl built = HttpUrl.get(request.buildURL());
+        assertEquals(value, built.queryParameter("name"));
+        assertEquals("plain", built.queryParameter("other"));
+        assertFalse(built.encodedQuery().contains("&c="));
+
+        request.run();
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("/api/validate", recorded.getRequestUrl().encodedPath());
+        assertEquals(value, recorded.getRequestUrl().queryParameter("name"));
+        assertEquals(2, recorded.getRequestUrl().querySize());
+    }
+
+    private <T extends AbstractRestResponse> RestRequest<T> request(Class<T> type) {
+        return new RestRequest<>(type, ENDPOINT)
+                .setBaseUrl(server.url("/").toString())
+                .setHttpClientService(httpClientService);
+    }
+
+    private long retries() {
+        return httpClientService.getStats(ENDPOINT).getRetries().sum();
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.craftmend.openaudiomc.generic.utils.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hammers the heat map from several threads for a while, bumping, evicting and reading at the same time,
+ * and times bumps and top lookups on a full map. Not part of the regular tests, run it with the benchmark task.
+ * Knobs: bench.heatmap.millis, bench.heatmap.threads and bench.heatmap.bumps.
+ */
+public class ConcurrentHeatMapBenchmark extends TestCase {
+
+    private static final int STRESS_MILLIS = Integer.getInteger("bench.heatmap.millis", 2000);
+    private static final int STRESS_THREADS = Integer.getInteger("bench.heatmap.threads", 4);
+    private static final int BUMPS = Integer.getInteger("bench.heatmap.bumps", 1_000_000);
+    private static final int MAX_ELEMENTS = 500;
+
+    @Test
+    public void testConcurrentBumpEvictAndRead() throws Exception {
+        ConcurrentHeatMap<Integer, Byte> map = new ConcurrentHeatMap<>(60, MAX_ELEMENTS, ConcurrentHeatMap.BYTE_CONTEXT);
+        map.setDeleteConsumer(key -> {
+            // removals are reported outside of the heap lock, so this is allowed to call back in
+            map.getMap().get(key);
+        });
+
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(STRESS_THREADS + 2);
+        List<Future<?>> workers = new ArrayList<>();
+
+        // bumpers, over four times as many keys as there's room for, so there's constant eviction
+        for (int t = 0; t < STRESS_THREADS; t++) {
+            Random random = new Random(t);
+            workers.add(executor.submit(guard(errors, start, () -> {
+                while (running.get()) {
+                    int key = random.nextInt(MAX_ELEMENTS * 4);
+                    // skew towards low keys, so there are clear winners
+                    if (random.nextBoolean()) key = key / 8;
+                    map.bump(key);
+                }
+            })));
+        }
+
+        // evictions from the outside: deletes, expired values, sweeps and decay
+        Random evictRandom = new Random(-1);
+        workers.add(executor.submit(guard(errors, start, () -> {
+            while (running.get()) {
+                int action = evictRandom.nextInt(4);
+                int key = evictRandom.nextInt(MAX_ELEMENTS * 4);
+                if (action == 0) {
+                    map.delete(key);
+                } else if (action == 1) {
+                    map.forceValue(key, Instant.now().minusSeconds(120), 10);
+                } else if (action == 2) {
+                    map.clean();
+                } else {
+                    map.decay(0.9);
+                }
+            }
+        })));
+
+        // readers
+        workers.add(executor.submit(guard(errors, start, () -> {
+            while (running.get()) {
+                List<ConcurrentHeatMap<Integer, Byte>.Value> top = map.getTop(10);
+                assertTrue(top.size() <= 10);
+                for (ConcurrentHeatMap<Integer, Byte>.Value value : top) {
+                    assertNotNull(value.getValue());
+                    assertTrue(value.getScore() >= 1);
+                }
+                for (ConcurrentHeatMap<Integer, Byte>.Value value : map.getValues()) {
+                    assertNotNull(value.getContext());
+                }
+            }
+        })));
+
+        start.countDown();
+        Thread.sleep(STRESS_MILLIS);
+        running.set(false);
+        for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        if (!errors.isEmpty()) {
+            AssertionError failure = new AssertionError(errors.size() + " workers failed, first failure attached");
+            failure.initCause(errors.peek());
+            throw failure;
+        }
+
+        map.clean();
+        assertTrue("heat map grew past its capacity: " + map.size(), map.size() <= MAX_ELEMENTS);
+        ConcurrentHeatMapTest.assertHotKeysTakeOver(map, MAX_ELEMENTS);
+    }
+
+    @Test
+    public void testBumpAndTop() {
+        ConcurrentHeatMap<Integer, Byte> map = new ConcurrentHeatMap<>(60, MAX_ELEMENTS, ConcurrentHeatMap.BYTE_CONTEXT);
+        Random random = new Random(BUMPS);
+        int[] keys = new int[BUMPS];
+        for (int i = 0; i < keys.length; i++) {
+            // mostly hits, with a steady trickle of new keys that push out the coldest ones
+            keys[i] = random.nextInt(10) == 0 ? MAX_ELEMENTS + random.nextInt(MAX_ELEMENTS * 10) : random.nextInt(MAX_ELEMENTS);
+        }
+
+        // fills the map, and gets the bump path compiled before we start the clock
+        for (int key : keys) map.bump(key);
+
+        long start = System.nanoTime();
+        for (int key : keys) map.bump(key);
+        long bumpNanos = System.nanoTime() - start;
+
+        int lookups = Math.max(1, BUMPS / 100);
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            assertEquals(10, map.getTop(10).size());
+        }
+        long topNanos = System.nanoTime() - start;
+
+        System.out.println(String.format("heat map of %d: bump %dns, top 10 %dns (%d bumps, %d lookups)",
+                MAX_ELEMENTS, bumpNanos / keys.length, topNanos / lookups, keys.length, lookups));
+
+        assertTrue(map.size() <= MAX_ELEMENTS);
+        List<ConcurrentHeatMap<Integer, Byte>.Value> top = map.getTop(10);
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getScore() >= top.get(i).getScore());
+        }
+    }
+
+    private static Runnable guard(Queue<Throwable> errors, CountDownLatch start, Runnable task) {
+        return () -> {
+            try {
+                start.await();
+                task.run();
+            } catch (Throwable t) {
+                errors.add(t);
+            }
+        };
+    }
+
+}
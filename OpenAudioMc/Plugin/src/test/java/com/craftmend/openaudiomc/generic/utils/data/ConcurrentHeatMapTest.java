@@ -0,0 +1,97 @@
+package com.craftmend.openaudiomc.generic.utils.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Checks the eviction order of the heat map, and that its heap and map stay in sync through every kind of
+ * removal. The multithreaded version of that check lives in {@link ConcurrentHeatMapBenchmark}.
+ */
+public class ConcurrentHeatMapTest extends TestCase {
+
+    private static final int MAX_ELEMENTS = 50;
+
+    @Test
+    public void testEvictsColdest() throws Exception {
+        ConcurrentHeatMap<String, Byte> map = new ConcurrentHeatMap<>(60, 3, ConcurrentHeatMap.BYTE_CONTEXT);
+        List<String> removed = new ArrayList<>();
+        map.setDeleteConsumer(removed::add);
+
+        for (int i = 0; i < 3; i++) map.bump("a");
+        for (int i = 0; i < 2; i++) map.bump("b");
+        map.bump("c");
+        Thread.sleep(1);
+        // same score as c, but c was pinged first, so that's the one that has to go
+        map.bump("d");
+
+        assertEquals(3, map.size());
+        assertEquals(Collections.singletonList("c"), removed);
+        assertFalse(map.getMap().containsKey("c"));
+
+        List<ConcurrentHeatMap<String, Byte>.Value> top = map.getTop(2);
+        assertEquals("a", top.get(0).getValue());
+        assertEquals("b", top.get(1).getValue());
+    }
+
+    @Test
+    public void testExpiredValuesAreReplaced() {
+        ConcurrentHeatMap<String, Byte> map = new ConcurrentHeatMap<>(60, 10, ConcurrentHeatMap.BYTE_CONTEXT);
+        List<String> removed = new ArrayList<>();
+        map.setDeleteConsumer(removed::add);
+
+        map.forceValue("old", Instant.now().minusSeconds(120), 50);
+        assertEquals(1, (int) map.get("old").getScore());
+        assertEquals(Collections.singletonList("old"), removed);
+        assertTrue(map.getTop(10).stream().noneMatch(value -> value.getScore() == 50));
+    }
+
+    @Test
+    public void testHeapFollowsEveryRemoval() {
+        ConcurrentHeatMap<Integer, Byte> map = new ConcurrentHeatMap<>(60, MAX_ELEMENTS, ConcurrentHeatMap.BYTE_CONTEXT);
+        Random random = new Random(MAX_ELEMENTS);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(MAX_ELEMENTS * 4);
+            switch (random.nextInt(8)) {
+                case 0:
+                    map.delete(key);
+                    break;
+                case 1:
+                    map.forceValue(key, Instant.now().minusSeconds(120), 10);
+                    break;
+                case 2:
+                    map.clean();
+                    break;
+                case 3:
+                    map.decay(0.9);
+                    break;
+                default:
+                    map.bump(key);
+            }
+            assertTrue(map.size() <= MAX_ELEMENTS);
+        }
+
+        assertHotKeysTakeOver(map, MAX_ELEMENTS);
+    }
+
+    /**
+     * If the heap and the map drifted apart, either stale heap entries would get evicted instead of the cold values,
+     * or cold values that aren't in the heap would never leave the map
+     */
+    static void assertHotKeysTakeOver(ConcurrentHeatMap<Integer, Byte> map, int capacity) {
+        map.clean();
+        Set<Integer> hot = new HashSet<>();
+        for (int i = 0; i < capacity; i++) {
+            int key = -1 - i;
+            hot.add(key);
+            map.get(key).setScore(Integer.MAX_VALUE / 2);
+            map.bump(key);
+        }
+        assertEquals(hot, new HashSet<>(map.getMap().keySet()));
+        assertEquals(capacity, map.size());
+    }
+
+}
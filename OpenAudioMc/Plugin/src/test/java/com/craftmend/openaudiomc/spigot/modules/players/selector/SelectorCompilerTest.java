@@ -0,0 +1,151 @@
+package com.craftmend.openaudiomc.spigot.modules.players.selector;
+
+import junit.framework.TestCase;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Parses selectors and evaluates their filters against fake players, without a running server.
+ */
+public class SelectorCompilerTest extends TestCase {
+
+    private final World world = world("world");
+    private final World nether = world("world_nether");
+    private final Location standPoint = new Location(world, 0, 64, 0);
+
+    @Test
+    public void testTargets() {
+        assertEquals(CompiledSelector.Target.ALL, SelectorCompiler.parse("@a").getTarget());
+        assertEquals(CompiledSelector.Target.NEAREST, SelectorCompiler.parse("@p[r=5]").getTarget());
+        assertEquals(CompiledSelector.Target.PLAYER, SelectorCompiler.parse("Mindgamesnl").getTarget());
+        assertEquals(CompiledSelector.Target.INVALID, SelectorCompiler.parse("ThisNameIsWayTooLong").getTarget());
+        assertEquals(CompiledSelector.Target.INVALID, SelectorCompiler.parse("@a[r=ten]").getTarget());
+        assertEquals(CompiledSelector.Target.INVALID, SelectorCompiler.parse("@a[region]").getTarget());
+    }
+
+    @Test
+    public void testParseArguments() {
+        Map<String, String> arguments = SelectorCompiler.parseArguments("@a[ R = 10 ,region=Spawn,world=world_nether]");
+        assertEquals(3, arguments.size());
+        assertEquals("10", arguments.get("r"));
+        assertEquals("Spawn", arguments.get("region"));
+        assertEquals("world_nether", arguments.get("world"));
+
+        assertTrue(SelectorCompiler.parseArguments("@a").isEmpty());
+        assertTrue(SelectorCompiler.parseArguments("@a[]").isEmpty());
+        assertTrue(SelectorCompiler.parseArguments("@a[ ]").isEmpty());
+        assertNull(SelectorCompiler.parseArguments("@a[r]"));
+        assertNull(SelectorCompiler.parseArguments("@a[=10]"));
+        assertNull(SelectorCompiler.parseArguments("@a]r=10["));
+    }
+
+    @Test
+    public void testOrigin() {
+        assertTrue(Arrays.equals(new int[]{1, 2, -3}, SelectorCompiler.parse("@a[x=1,y=~2,z=-3]").getOrigin()));
+        // all three, or we stick to the location of the sender
+        assertNull(SelectorCompiler.parse("@a[x=1,y=2]").getOrigin());
+        assertNull(SelectorCompiler.parse("@a[x=1,y=2,z=]").getOrigin());
+    }
+
+    @Test
+    public void testSameWorldByDefault() {
+        CompiledSelector selector = SelectorCompiler.parse("@a");
+        SelectorContext context = new SelectorContext(standPoint, null);
+
+        assertTrue(selector.matches(player(new Location(world, 1000, 64, 1000)), context));
+        assertFalse(selector.matches(player(new Location(nether, 0, 64, 0)), context));
+    }
+
+    @Test
+    public void testWorld() {
+        CompiledSelector selector = SelectorCompiler.parse("@a[world=world_nether]");
+        SelectorContext context = new SelectorContext(standPoint, null);
+
+        assertFalse(selector.matches(player(new Location(world, 0, 64, 0)), context));
+        assertTrue(selector.matches(player(new Location(nether, 0, 64, 0)), context));
+    }
+
+    @Test
+    public void testRadius() {
+        CompiledSelector selector = SelectorCompiler.parse("@a[r=10]");
+        SelectorContext context = new SelectorContext(standPoint, null);
+
+        assertTrue(selector.matches(player(new Location(world, 5, 64, 5)), context));
+        assertFalse(selector.matches(player(new Location(world, 10, 64, 0)), context));
+        assertFalse(selector.matches(player(new Location(nether, 0, 64, 0)), context));
+
+        // distance is an alias for r, and the radius is measured from the origin if there is one
+        selector = SelectorCompiler.parse("@a[distance=10,x=100,y=64,z=100]");
+        context = new SelectorContext(new Location(world, 100, 64, 100), null);
+        assertTrue(selector.matches(player(new Location(world, 105, 64, 100)), context));
+        assertFalse(selector.matches(player(new Location(world, 0, 64, 0)), context));
+    }
+
+    @Test
+    public void testRegionWithoutProviderSelectsNobody() {
+        CompiledSelector selector = SelectorCompiler.parse("@a[region=spawn]");
+        assertTrue(selector.isUsingRegions());
+
+        SelectorContext context = new SelectorContext(standPoint, null);
+        assertFalse(selector.matches(player(new Location(world, 0, 64, 0)), context));
+        assertFalse(selector.matches(player(new Location(nether, 0, 64, 0)), context));
+    }
+
+    @Test
+    public void testRegion() {
+        CompiledSelector selector = SelectorCompiler.parse("@a[region=Spawn]");
+        Player inSpawn = player(new Location(nether, 0, 64, 0));
+        Player outside = player(new Location(world, 0, 64, 0));
+
+        SelectorContext context = new SelectorContext(standPoint, null) {
+            @Override
+            public Set<String> regionsOf(Player player) {
+                return player == inSpawn ? Collections.singleton("spawn") : Collections.emptySet();
+            }
+        };
+
+        // regions can be in any world, and their names don't care about case
+        assertTrue(selector.matches(inSpawn, context));
+        assertFalse(selector.matches(outside, context));
+    }
+
+    @Test
+    public void testCompileIsCached() {
+        CompiledSelector first = SelectorCompiler.compile("@a[r=15,region=cached]");
+        assertSame(first, SelectorCompiler.compile("@a[r=15,region=cached]"));
+        assertNotSame(first, SelectorCompiler.compile("@a[r=16,region=cached]"));
+    }
+
+    private static World world(String name) {
+        return stub(World.class, Collections.singletonMap("getName", name));
+    }
+
+    private static Player player(Location location) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getUniqueId", UUID.randomUUID());
+        answers.put("getLocation", location);
+        return stub(Player.class, answers);
+    }
+
+    private static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class[]{type}, (proxy, method, args) -> {
+            if (answers.containsKey(method.getName())) return answers.get(method.getName());
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + answers;
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        }));
+    }
+
+}